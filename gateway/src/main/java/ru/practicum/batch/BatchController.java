@@ -0,0 +1,83 @@
+package ru.practicum.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.batch.dto.BatchRequestEntry;
+import ru.practicum.batch.dto.BatchResponseEntry;
+import ru.practicum.error.ValidationRequestException;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Controller
+@RequestMapping(path = "/batch")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchController {
+    static final int MAX_BATCH_SIZE = 20;
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PATCH,
+            HttpMethod.DELETE);
+    /**
+     * Сегменты пути - только буквы, цифры, '_' и '-': ни '.', ни '..', ни закодированных символов и ';'.
+     * Путь сопоставляется с методами контроллеров посегментно, как есть, без нормализации
+     */
+    private static final Pattern PATH = Pattern.compile("/(users|items|bookings|requests)(/[\\w-]+)*(\\?[^\\s#]*)?");
+
+    private final BatchDispatcher batchDispatcher;
+
+    /**
+     * Параллельно выполняет до MAX_BATCH_SIZE запросов к /users, /items, /bookings и /requests
+     * с X-Sharer-User-Id пакета через контроллеры шлюза. Результаты идут в порядке запросов,
+     * отклонённый здесь запрос получает код 400 и не влияет на остальные
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Object>> executeBatch(@RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId,
+                                                     @RequestBody List<BatchRequestEntry> entries) {
+        if (entries.isEmpty() || entries.size() > MAX_BATCH_SIZE) {
+            throw new ValidationRequestException(
+                    String.format("Batch must contain from 1 to %d requests", MAX_BATCH_SIZE));
+        }
+        log.info("Executing batch of {} requests, userId={}", entries.size(), userId);
+        return Flux.range(0, entries.size())
+                .flatMapSequential(i -> send(entries.get(i), userId), MAX_BATCH_SIZE)
+                .collectList()
+                .map(ResponseEntity::<Object>ok);
+    }
+
+    private Mono<BatchResponseEntry> send(BatchRequestEntry entry, Long userId) {
+        if (entry == null) {
+            return Mono.just(BatchDispatcher.failed(null, HttpStatus.BAD_REQUEST, "Request must not be null"));
+        }
+        HttpMethod method = entry.getMethod() != null ? HttpMethod.resolve(entry.getMethod().toUpperCase()) : null;
+        if (method == null || !METHODS.contains(method)) {
+            return Mono.just(BatchDispatcher.failed(entry.getId(), HttpStatus.BAD_REQUEST,
+                    "Unsupported method: " + entry.getMethod()));
+        }
+        if (entry.getPath() == null || !PATH.matcher(entry.getPath()).matches() || !isUri(entry.getPath())) {
+            return Mono.just(BatchDispatcher.failed(entry.getId(), HttpStatus.BAD_REQUEST,
+                    "Unsupported path: " + entry.getPath()));
+        }
+        return batchDispatcher.dispatch(entry, method, userId);
+    }
+
+    private static boolean isUri(String path) {
+        try {
+            URI.create(path);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package ru.practicum.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.batch.dto.BatchRequestEntry;
+import ru.practicum.batch.dto.BatchResponseEntry;
+import ru.practicum.booking.BookingController;
+import ru.practicum.booking.dto.BookingDto;
+import ru.practicum.error.ValidationRequestException;
+import ru.practicum.item.ItemController;
+import ru.practicum.item.dto.CommentDto;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.request.ItemRequestController;
+import ru.practicum.request.dto.ItemRequestDto;
+import ru.practicum.user.UserController;
+import ru.practicum.user.dto.UserCreateDto;
+import ru.practicum.user.dto.UserUpdateDto;
+
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Выполняет запрос пакета внутри шлюза: по методу и пути выбирает метод контроллера и вызывает его с параметрами,
+ * заголовком и телом запроса. Вызов идёт через прокси контроллера, поэтому проверяются те же ограничения
+ * на параметры и DTO, что и у отдельного запроса, а контроллер обращается к клиенту сервера напрямую,
+ * с кэшем ответов и объединением запросов, без лишнего HTTP-запроса к самому шлюзу
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchDispatcher {
+    private final UserController userController;
+    private final ItemController itemController;
+    private final BookingController bookingController;
+    private final ItemRequestController itemRequestController;
+    private final ObjectMapper objectMapper;
+
+    public static BatchResponseEntry failed(String id, HttpStatus status, String error) {
+        return new BatchResponseEntry(id, status.value(), JsonNodeFactory.instance.objectNode()
+                .put("error", error)
+                .toString());
+    }
+
+    /**
+     * Ответ контроллера или ошибка валидации с кодом, который вернул бы шлюз на отдельный запрос.
+     * Блокирующий клиент сервера занимает поток на время ответа, поэтому каждый запрос пакета выполняется
+     * в своём потоке boundedElastic
+     */
+    public Mono<BatchResponseEntry> dispatch(BatchRequestEntry entry, HttpMethod method, @Nullable Long userId) {
+        return Mono.defer(() -> route(new Call(method, UriComponentsBuilder.fromUriString(entry.getPath()).build(),
+                        entry.getBody(), userId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(response -> new BatchResponseEntry(entry.getId(), response.getStatusCodeValue(),
+                        toJson(response)))
+                .onErrorResume(e -> {
+                    HttpStatus status = isValidationError(e) ? HttpStatus.BAD_REQUEST : HttpStatus.BAD_GATEWAY;
+                    log.warn("Batch request {} {} failed with status {}: {}", method, entry.getPath(), status.value(),
+                            e.getMessage());
+                    return Mono.just(failed(entry.getId(), status, e.getMessage()));
+                });
+    }
+
+    private Mono<ResponseEntity<Object>> route(Call call) {
+        switch (call.segment(0)) {
+            case "users":
+                return users(call);
+            case "items":
+                return items(call);
+            case "bookings":
+                return bookings(call);
+            case "requests":
+                return requests(call);
+            default:
+                return notFound(call);
+        }
+    }
+
+    private Mono<ResponseEntity<Object>> users(Call call) {
+        if (call.matches(HttpMethod.GET, 1)) {
+            return userController.getAllUsers(call.intParam("from", null), call.intParam("size", null),
+                    call.longParam("after"));
+        }
+        if (call.matches(HttpMethod.GET, 2)) {
+            return userController.getUserById(call.longSegment(1));
+        }
+        if (call.matches(HttpMethod.POST, 1)) {
+            return userController.saveNewUser(call.body(UserCreateDto.class));
+        }
+        if (call.matches(HttpMethod.PATCH, 2)) {
+            return userController.updateUser(call.body(UserUpdateDto.class), call.longSegment(1));
+        }
+        if (call.matches(HttpMethod.DELETE, 2)) {
+            return userController.deleteUser(call.longSegment(1))
+                    .then(Mono.just(ResponseEntity.ok().build()));
+        }
+        return notFound(call);
+    }
+
+    private Mono<ResponseEntity<Object>> items(Call call) {
+        if (call.matches(HttpMethod.GET, 1)) {
+            return itemController.getUserItems(call.userId(), call.intParam("from", 0), call.intParam("size", 10));
+        }
+        if (call.matches(HttpMethod.GET, 2) && call.segment(1).equals("search")) {
+            return itemController.searchItems(call.userId(), call.requiredParam("text"), call.intParam("from", 0),
+                    call.intParam("size", 10));
+        }
+        if (call.matches(HttpMethod.GET, 2)) {
+            return itemController.getItemById(call.longSegment(1), call.userId());
+        }
+        if (call.matches(HttpMethod.POST, 1)) {
+            return itemController.addItem(call.body(ItemDto.class), call.userId());
+        }
+        if (call.matches(HttpMethod.PATCH, 2)) {
+            return itemController.updateItem(call.body(ItemDto.class), call.longSegment(1), call.userId());
+        }
+        if (call.matches(HttpMethod.POST, 3) && call.segment(2).equals("comment")) {
+            return itemController.addComment(call.body(CommentDto.class), call.longSegment(1), call.userId());
+        }
+        return notFound(call);
+    }
+
+    private Mono<ResponseEntity<Object>> bookings(Call call) {
+        if (call.matches(HttpMethod.GET, 1)) {
+            return bookingController.getBookings(call.userId(), call.param("state", "all"), call.intParam("from", 0),
+                    call.intParam("size", 10), call.param("after", null));
+        }
+        if (call.matches(HttpMethod.GET, 2) && call.segment(1).equals("owner")) {
+            return bookingController.getOwnerBookings(call.userId(), call.param("state", "all"),
+                    call.intParam("from", 0), call.intParam("size", 10), call.param("after", null));
+        }
+        if (call.matches(HttpMethod.GET, 2)) {
+            return bookingController.getBooking(call.userId(), call.longSegment(1));
+        }
+        if (call.matches(HttpMethod.POST, 1)) {
+            return bookingController.createBooking(call.userId(), call.body(BookingDto.class));
+        }
+        if (call.matches(HttpMethod.POST, 2) && call.segment(1).equals("batch")) {
+            return bookingController.createBookings(call.userId(), call.listBody(BookingDto.class));
+        }
+        if (call.matches(HttpMethod.PATCH, 2) && call.segment(1).equals("batch")) {
+            return bookingController.confirmBookings(call.listBody(Long.class), call.booleanParam("approved"),
+                    call.userId());
+        }
+        if (call.matches(HttpMethod.PATCH, 2)) {
+            return bookingController.confirmBooking(call.longSegment(1), call.booleanParam("approved"),
+                    call.userId());
+        }
+        return notFound(call);
+    }
+
+    private Mono<ResponseEntity<Object>> requests(Call call) {
+        if (call.matches(HttpMethod.GET, 1)) {
+            return itemRequestController.getOwnerRequests(call.userId());
+        }
+        if (call.matches(HttpMethod.GET, 2) && call.segment(1).equals("all")) {
+            return itemRequestController.getUserRequests(call.userId(), call.intParam("from", 0),
+                    call.intParam("size", 10), call.param("after", null));
+        }
+        if (call.matches(HttpMethod.GET, 2)) {
+            return itemRequestController.getRequestById(call.userId(), call.longSegment(1));
+        }
+        if (call.matches(HttpMethod.POST, 1)) {
+            return itemRequestController.createRequest(call.body(ItemRequestDto.class), call.userId());
+        }
+        return notFound(call);
+    }
+
+    private static Mono<ResponseEntity<Object>> notFound(Call call) {
+        return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonNodeFactory.instance.objectNode()
+                        .put("error", "No handler for " + call.method + " " + call.uri.getPath())));
+    }
+
+    /**
+     * Ошибки, на которые ErrorHandler и Spring MVC ответили бы кодом 400
+     */
+    private static boolean isValidationError(Throwable e) {
+        return e instanceof ValidationRequestException || e instanceof ConstraintViolationException
+                || e instanceof IllegalArgumentException;
+    }
+
+    /**
+     * JSON-тело ответа сервера вставляется как есть, любое другое - JSON-строкой
+     */
+    @Nullable
+    private String toJson(ResponseEntity<Object> response) {
+        Object body = response.getBody();
+        if (body == null) {
+            return null;
+        }
+        if (!(body instanceof byte[])) {
+            try {
+                return objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to write batch response body", e);
+            }
+        }
+        byte[] bytes = (byte[]) body;
+        if (bytes.length == 0) {
+            return null;
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return text;
+        }
+        return TextNode.valueOf(text).toString();
+    }
+
+    /**
+     * Разобранный запрос пакета: сегменты пути, параметры запроса, тело и X-Sharer-User-Id пакета
+     */
+    private class Call {
+        private final HttpMethod method;
+        private final UriComponents uri;
+        private final List<String> segments;
+        private final MultiValueMap<String, String> params;
+        @Nullable
+        private final JsonNode body;
+        @Nullable
+        private final Long userId;
+
+        Call(HttpMethod method, UriComponents uri, @Nullable JsonNode body, @Nullable Long userId) {
+            this.method = method;
+            this.uri = uri;
+            this.segments = uri.getPathSegments();
+            this.params = uri.getQueryParams();
+            this.body = body;
+            this.userId = userId;
+        }
+
+        boolean matches(HttpMethod method, int segmentCount) {
+            return this.method == method && segments.size() == segmentCount;
+        }
+
+        String segment(int index) {
+            return segments.get(index);
+        }
+
+        long longSegment(int index) {
+            return Long.parseLong(segments.get(index));
+        }
+
+        long userId() {
+            if (userId == null) {
+                throw new ValidationRequestException("Заголовок отсутствует: X-Sharer-User-Id");
+            }
+            return userId;
+        }
+
+        @Nullable
+        String param(String name, @Nullable String defaultValue) {
+            String value = params.getFirst(name);
+            return value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : defaultValue;
+        }
+
+        String requiredParam(String name) {
+            String value = param(name, null);
+            if (value == null) {
+                throw new ValidationRequestException("Parameter '" + name + "' is required");
+            }
+            return value;
+        }
+
+        @Nullable
+        Integer intParam(String name, @Nullable Integer defaultValue) {
+            String value = param(name, null);
+            return value != null ? Integer.valueOf(value) : defaultValue;
+        }
+
+        @Nullable
+        Long longParam(String name) {
+            String value = param(name, null);
+            return value != null ? Long.valueOf(value) : null;
+        }
+
+        Boolean booleanParam(String name) {
+            String value = requiredParam(name);
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new ValidationRequestException("Parameter '" + name + "' must be true or false");
+            }
+            return Boolean.valueOf(value);
+        }
+
+        <T> T body(Class<T> type) {
+            try {
+                return objectMapper.treeToValue(requiredBody(), type);
+            } catch (JsonProcessingException e) {
+                throw new ValidationRequestException("Invalid request body: " + e.getOriginalMessage());
+            }
+        }
+
+        <T> List<T> listBody(Class<T> type) {
+            try {
+                return objectMapper.readerForListOf(type).readValue(requiredBody());
+            } catch (IOException e) {
+                throw new ValidationRequestException("Invalid request body: " + e.getMessage());
+            }
+        }
+
+        private JsonNode requiredBody() {
+            if (body == null || body.isNull()) {
+                throw new ValidationRequestException("Request body is required");
+            }
+            return body;
+        }
+    }
+}
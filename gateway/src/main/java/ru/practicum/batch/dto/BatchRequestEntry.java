@@ -0,0 +1,20 @@
+package ru.practicum.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Запрос пакета: метод, путь с параметрами, например /items?from=0&size=10, и необязательное JSON-тело.
+ * id возвращается вместе с результатом, чтобы клиент мог их сопоставить
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestEntry {
+    private String id;
+    private String method;
+    private String path;
+    private JsonNode body;
+}
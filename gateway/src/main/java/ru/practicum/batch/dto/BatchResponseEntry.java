@@ -0,0 +1,19 @@
+package ru.practicum.batch.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат запроса пакета: код ответа и JSON-тело - те же, что получил бы отдельный запрос
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponseEntry {
+    private String id;
+    private int status;
+    @JsonRawValue
+    private String body;
+}
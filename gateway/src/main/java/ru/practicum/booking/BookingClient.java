@@ -1,16 +1,24 @@
 package ru.practicum.booking;
 
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingState;
+import reactor.core.publisher.Mono;
+import ru.practicum.cache.ResponseCache;
 import ru.practicum.client.BaseClient;
+import ru.practicum.client.RequestCoalescer;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,43 +26,65 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpClient serverHttpClient, ObjectProvider<WebClient> serverWebClient,
+                         ResponseCache responseCache, RequestCoalescer requestCoalescer) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                withBaseUrl(serverWebClient.getIfAvailable(), serverUrl + API_PREFIX),
+                responseCache,
+                requestCoalescer
         );
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingDto requestDto) {
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookingDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> confirmBooking(long bookingId, Boolean approved, long userId) {
+    public Mono<ResponseEntity<Object>> createBookings(long userId, List<BookingDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> confirmBookings(List<Long> bookingIds, Boolean approved, long userId) {
+        Map<String, Object> parameters = Map.of("approved", approved.toString());
+        return patch("/batch?approved={approved}", userId, parameters, bookingIds);
+    }
+
+    public Mono<ResponseEntity<Object>> confirmBooking(long bookingId, Boolean approved, long userId) {
         Map<String, Object> parameters = Map.of("approved", approved.toString());
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, String after) {
+        return getPage("", userId, state, from, size, after);
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getOwnerBookings(long userId, BookingState state, Integer from, Integer size,
+                                                         String after) {
+        return getPage("/owner", userId, state, from, size, after);
+    }
+
+    /**
+     * Без курсора сервер листает по from/size, с курсором - по ключу (start, id), начиная после него
+     */
+    private Mono<ResponseEntity<Object>> getPage(String path, long userId, BookingState state, Integer from, Integer size,
+                                                 String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        if (after == null) {
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get(path + "?state={state}&from={from}&size={size}&after={after}", userId, parameters);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.booking.dto.BookingDto;
 import ru.practicum.booking.dto.BookingState;
 import ru.practicum.error.ValidationRequestException;
@@ -15,6 +16,7 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -22,58 +24,114 @@ import java.time.LocalDateTime;
 @Slf4j
 @Validated
 public class BookingController {
+    static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestBody @Valid BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody @Valid BookingDto bookingDto) {
         //Проверка времени
-        LocalDateTime start = bookingDto.getStart();
-        LocalDateTime end = bookingDto.getEnd();
-        if (start == null || end == null) {
-            throw new ValidationRequestException("Time is not be null");
-        }
-        if (start.isAfter(end) || start.isEqual(end) || start.isBefore(LocalDateTime.now())) {
-            throw new ValidationRequestException("Uncorrected time");
+        String timeError = checkTime(bookingDto);
+        if (timeError != null) {
+            throw new ValidationRequestException(timeError);
         }
         log.info("Creating booking {}, userId={}", bookingDto, userId);
         return bookingClient.createBooking(userId, bookingDto);
     }
 
+    /**
+     * Создаёт до MAX_BATCH_SIZE бронирований одной транзакцией сервера, в ответе - результат по каждому бронированию
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestBody List<BookingDto> bookingDtos) {
+        checkBatchSize(bookingDtos.size());
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            String timeError = checkTime(bookingDtos.get(i));
+            if (timeError != null) {
+                throw new ValidationRequestException(String.format("Booking #%d: %s", i, timeError));
+            }
+        }
+        log.info("Creating {} bookings, userId={}", bookingDtos.size(), userId);
+        return bookingClient.createBookings(userId, bookingDtos);
+    }
+
+    /**
+     * Подтверждает или отклоняет до MAX_BATCH_SIZE бронирований одной транзакцией сервера, в ответе - результат по каждому id.
+     * Уже подтверждённые и отклонённые бронирования сервер не меняет и возвращает для них ошибку 400
+     */
+    @PatchMapping("/batch")
+    public Mono<ResponseEntity<Object>> confirmBookings(@RequestBody List<Long> bookingIds,
+                                                        @NotNull @RequestParam Boolean approved,
+                                                        @RequestHeader("X-Sharer-User-Id") long userId) {
+        checkBatchSize(bookingIds.size());
+        if (bookingIds.contains(null)) {
+            throw new ValidationRequestException("Booking id is not be null");
+        }
+        log.info("Confirm bookings {}, ownerId={}, approved = {}", bookingIds, userId, approved);
+        return bookingClient.confirmBookings(bookingIds, approved, userId);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> confirmBooking(@PathVariable long bookingId,
-                                                 @NotNull @RequestParam Boolean approved,
-                                                 @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> confirmBooking(@PathVariable long bookingId,
+                                                       @NotNull @RequestParam Boolean approved,
+                                                       @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Confirm booking {}, ownerId={}, approved = {}", bookingId, userId, approved);
         return bookingClient.confirmBooking(bookingId, approved, userId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new ValidationRequestException("Unknown state: " + stateParam));
-        log.info("Get bookings with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get bookings with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                         @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new ValidationRequestException("Unknown state: " + stateParam));
-        log.info("Get owner bookings with state {}, ownerId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getOwnerBookings(userId, state, from, size);
+        log.info("Get owner bookings with state {}, ownerId={}, from={}, size={}, after={}",
+                stateParam, userId, from, size, after);
+        return bookingClient.getOwnerBookings(userId, state, from, size, after);
+    }
+
+    private String checkTime(BookingDto bookingDto) {
+        if (bookingDto == null) {
+            return "Booking is not be null";
+        }
+        LocalDateTime start = bookingDto.getStart();
+        LocalDateTime end = bookingDto.getEnd();
+        if (start == null || end == null) {
+            return "Time is not be null";
+        }
+        if (start.isAfter(end) || start.isEqual(end) || start.isBefore(LocalDateTime.now())) {
+            return "Uncorrected time";
+        }
+        return null;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            throw new ValidationRequestException(
+                    String.format("Batch must contain from 1 to %d bookings", MAX_BATCH_SIZE));
+        }
     }
 }
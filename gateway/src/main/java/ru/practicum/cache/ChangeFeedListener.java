@@ -0,0 +1,100 @@
+package ru.practicum.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.cache.dto.ChangePage;
+
+/**
+ * Следит за лентой изменений сервера длинными опросами и применяет её к кэшу ответов.
+ * Новая эпоха сервера или страница со сбросом начинают слежение заново, ошибка ленты выключает кэш до её восстановления
+ */
+@Slf4j
+@Component
+public class ChangeFeedListener implements SmartLifecycle {
+    private static final String API_PREFIX = "/changes";
+
+    private final RestTemplate rest;
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ChangeFeedListener(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                              HttpClient serverHttpClient, ResponseCache responseCache,
+                              ResponseCacheProperties properties) {
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                .build();
+        this.responseCache = responseCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::follow, "change-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void follow() {
+        Long after = null;
+        String epoch = null;
+        while (running) {
+            try {
+                ChangePage page = after == null
+                        ? rest.getForObject("", ChangePage.class)
+                        : rest.getForObject("?after={after}&limit={limit}&timeout={timeout}", ChangePage.class,
+                        after, properties.getPollLimit(), properties.getPollTimeout().toMillis());
+                if (after == null || page.isReset() || !page.getEpoch().equals(epoch)) {
+                    log.info("Following server changes from {}, epoch {}", page.getLast(), page.getEpoch());
+                    responseCache.follow(page.getEpoch(), page.getLast());
+                } else {
+                    responseCache.apply(page.getChanges(), page.getLast());
+                }
+                after = page.getLast();
+                epoch = page.getEpoch();
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                if (after != null) {
+                    log.warn("Change feed is unavailable, response cache is off: {}", e.getMessage());
+                } else {
+                    log.debug("Change feed is unavailable: {}", e.getMessage());
+                }
+                responseCache.stopFollowing();
+                after = null;
+                try {
+                    Thread.sleep(properties.getRetryDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
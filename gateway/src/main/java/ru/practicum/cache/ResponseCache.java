@@ -0,0 +1,246 @@
+package ru.practicum.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.RequestCoalescer;
+import ru.practicum.cache.dto.ChangeDto;
+import ru.practicum.cache.dto.ChangeType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Успешные GET-ответы сервера с ключом из URI запроса и X-Sharer-User-Id.
+ * Каждая запись помечена тегами данных, которые она показывает, например ITEM:5 для одной вещи или ITEM для любой,
+ * событие изменения на сервере удаляет записи с подходящими тегами.
+ * Записи отдаются, только пока шлюз следит за лентой изменений и она дошла до номера события
+ * последней записи через шлюз, поэтому клиент всегда видит свои изменения.
+ * Ответ, полученный после сброса, которому он может предшествовать, не кэшируется,
+ * а запросы после сброса не присоединяются к запросам на сервер, отправленным до него
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+    public static final String CHANGE_SEQ_HEADER = "X-Shareit-Change-Seq";
+    /**
+     * Сколько миллисекунд ответ сервера верен без записи и события в ленте: вещи владельца меняются,
+     * когда начинается их следующее бронирование
+     */
+    public static final String MAX_AGE_HEADER = "X-Shareit-Max-Age";
+
+    private final boolean enabled;
+    private final RequestCoalescer requestCoalescer;
+    private final Map<String, Entry> entries;
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    @Nullable
+    private String epoch;
+    private boolean following;
+    private long appliedSeq;
+    private long requiredSeq;
+    /**
+     * Увеличивается при каждом сбросе
+     */
+    private long version;
+
+    public ResponseCache(ResponseCacheProperties properties, RequestCoalescer requestCoalescer,
+                         MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.requestCoalescer = requestCoalescer;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("shareit.gateway.response.cache.requests")
+                .description("GET requests answered by the gateway response cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("shareit.gateway.response.cache.requests")
+                .description("GET requests answered by the gateway response cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.response.cache.size", this, ResponseCache::size)
+                .description("Responses held by the gateway response cache")
+                .register(meterRegistry);
+    }
+
+    public static String key(String uri, @Nullable Long userId) {
+        return uri + " " + userId;
+    }
+
+    /**
+     * Тег записей, которые меняются вместе с любой сущностью типа, например списков
+     */
+    public static String tag(ChangeType type) {
+        return type.name();
+    }
+
+    public static String tag(ChangeType type, long id) {
+        return type.name() + ":" + id;
+    }
+
+    @Nullable
+    public synchronized ResponseEntity<Object> get(String key) {
+        Entry entry = serving() ? entries.get(key) : null;
+        if (entry != null && entry.isExpired()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response;
+    }
+
+    /**
+     * Читается до отправки запроса, ответ на который затем передаётся в {@link #put}
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * expiresAt - момент по System.nanoTime(), после которого ответ не отдаётся, null - ответ верен до события в ленте
+     */
+    public synchronized void put(String key, Collection<String> tags, ResponseEntity<Object> response, long version,
+                                 @Nullable Long expiresAt) {
+        if (!serving() || version != this.version || !response.getStatusCode().is2xxSuccessful()) {
+            return;
+        }
+        remove(key);
+        Entry entry = new Entry(response, List.copyOf(tags), expiresAt);
+        entries.put(key, entry);
+        for (String tag : entry.tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Ответы из кэша не отдаются, пока лента изменений не дойдёт до seq записи, сделанной через шлюз
+     */
+    public synchronized void requireSeq(long seq) {
+        requiredSeq = Math.max(requiredSeq, seq);
+    }
+
+    /**
+     * Начинает следить за лентой с last: всё закэшированное раньше удаляется
+     */
+    public synchronized void follow(String epoch, long last) {
+        if (!epoch.equals(this.epoch)) {
+            requiredSeq = 0;
+        }
+        this.epoch = epoch;
+        clear();
+        appliedSeq = last;
+        following = true;
+    }
+
+    public synchronized void apply(Collection<ChangeDto> changes, long last) {
+        if (!changes.isEmpty()) {
+            version++;
+            requestCoalescer.advance();
+        }
+        for (ChangeDto change : changes) {
+            invalidate(change);
+        }
+        appliedSeq = last;
+    }
+
+    /**
+     * Без ленты ответам из кэша нельзя доверять
+     */
+    public synchronized void stopFollowing() {
+        following = false;
+        clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean serving() {
+        return enabled && following && appliedSeq >= requiredSeq;
+    }
+
+    private void invalidate(ChangeDto change) {
+        String typeTag = tag(change.getType());
+        List<String> tags = new ArrayList<>();
+        if (change.getId() != null) {
+            tags.add(typeTag);
+            tags.add(tag(change.getType(), change.getId()));
+        } else {
+            for (String tag : keysByTag.keySet()) {
+                if (tag.equals(typeTag) || tag.startsWith(typeTag + ":")) {
+                    tags.add(tag);
+                }
+            }
+        }
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                new ArrayList<>(keys).forEach(this::remove);
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(String key, Entry entry) {
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private void clear() {
+        version++;
+        requestCoalescer.advance();
+        entries.clear();
+        keysByTag.clear();
+    }
+
+    private static class Entry {
+        private final ResponseEntity<Object> response;
+        private final List<String> tags;
+        @Nullable
+        private final Long expiresAt;
+
+        Entry(ResponseEntity<Object> response, List<String> tags, @Nullable Long expiresAt) {
+            this.response = response;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return expiresAt != null && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша GET-ответов сервера
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    /**
+     * Наибольшее число ответов в кэше, давно не запрошенные вытесняются
+     */
+    private int maxEntries = 10000;
+    /**
+     * Сколько сервер держит запрос к ленте изменений, если новых событий нет
+     */
+    private Duration pollTimeout = Duration.ofSeconds(20);
+    /**
+     * Наибольшее число событий в одном ответе ленты
+     */
+    private int pollLimit = 1000;
+    /**
+     * Пауза перед повторным подключением к ленте после ошибки
+     */
+    private Duration retryDelay = Duration.ofSeconds(1);
+}
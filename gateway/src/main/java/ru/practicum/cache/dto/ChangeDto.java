@@ -0,0 +1,17 @@
+package ru.practicum.cache.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие изменения на сервере, id = null - могла измениться любая сущность типа
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeDto {
+    private long seq;
+    private ChangeType type;
+    private Long id;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.cache.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePage {
+    private String epoch;
+    private long last;
+    private boolean reset;
+    private List<ChangeDto> changes;
+}
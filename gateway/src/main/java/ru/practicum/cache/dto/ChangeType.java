@@ -0,0 +1,8 @@
+package ru.practicum.cache.dto;
+
+public enum ChangeType {
+    USER,
+    ITEM,
+    BOOKING,
+    REQUEST
+}
@@ -4,105 +4,261 @@ import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.cache.ResponseCache;
+import ru.practicum.cache.dto.ChangeType;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Ответы сервера передаются клиенту как есть, байтами, вместе со сквозными заголовками:
+ * шлюз не разбирает тело ответа в JSON-дерево только для того, чтобы снова его сериализовать.
+ * С WebClient (режим reactive) запросы отправляются без блокировки потока на время ответа сервера,
+ * без него - через блокирующий RestTemplate в вызывающем потоке.
+ * GET через cachedGet проходят через кэш ответов, одновременные одинаковые GET делят один запрос к серверу
+ */
 public class BaseClient {
+    /**
+     * Заголовки соединения из ответа сервера - шлюз ставит свои, и номер события ленты изменений
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        HOP_BY_HOP_HEADERS.addAll(List.of(HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE,
+                ResponseCache.CHANGE_SEQ_HEADER));
+    }
+
     protected final RestTemplate rest;
+    @Nullable
+    private final WebClient webClient;
+    @Nullable
+    private final ResponseCache responseCache;
+    @Nullable
+    private final RequestCoalescer requestCoalescer;
+
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient) {
+        this(rest, webClient, null, null);
+    }
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient, @Nullable ResponseCache responseCache,
+                      @Nullable RequestCoalescer requestCoalescer) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    /**
+     * Копия общего WebClient сервера, которая строит пути от baseUrl, null в режиме blocking
+     */
+    @Nullable
+    protected static WebClient withBaseUrl(@Nullable WebClient webClient, String baseUrl) {
+        return webClient == null ? null : webClient.mutate()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(baseUrl))
+                .build();
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    protected static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders headers,
+                                                                   @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(passThroughHeaders(headers));
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    private static HttpHeaders passThroughHeaders(@Nullable HttpHeaders headers) {
+        HttpHeaders passThrough = new HttpHeaders();
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                    passThrough.put(name, values);
+                }
+            });
+        }
+        return passThrough;
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * GET, на который по возможности отвечает кэш ответов. Успешный ответ сервера кэшируется с тегами данных,
+     * которые он показывает, ответ для пользователя помечается ещё и тегом этого пользователя.
+     * Ответ с MAX_AGE_HEADER хранится не дольше указанного в нём времени, отсчитанного от отправки запроса
+     */
+    protected Mono<ResponseEntity<Object>> cachedGet(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                     String... tags) {
+        if (responseCache == null) {
+            return get(path, userId, parameters).map(BaseClient::withoutMaxAge);
+        }
+        String key = requestKey(path, userId, parameters);
+        List<String> dependsOn = new ArrayList<>(List.of(tags));
+        if (userId != null) {
+            dependsOn.add(ResponseCache.tag(ChangeType.USER, userId));
+        }
+        return Mono.defer(() -> {
+            ResponseEntity<Object> cached = responseCache.get(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long version = responseCache.version();
+            long requestedAt = System.nanoTime();
+            return get(path, userId, parameters)
+                    .map(response -> {
+                        String maxAge = response.getHeaders().getFirst(ResponseCache.MAX_AGE_HEADER);
+                        ResponseEntity<Object> gatewayResponse = withoutMaxAge(response);
+                        responseCache.put(key, dependsOn, gatewayResponse, version, maxAge == null ? null
+                                : requestedAt + TimeUnit.MILLISECONDS.toNanos(Long.parseLong(maxAge)));
+                        return gatewayResponse;
+                    });
+        });
+    }
+
+    private static ResponseEntity<Object> withoutMaxAge(ResponseEntity<Object> response) {
+        if (!response.getHeaders().containsKey(ResponseCache.MAX_AGE_HEADER)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(ResponseCache.MAX_AGE_HEADER);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    /**
+     * Запись сообщает номер своего события в ленте изменений, ответы из кэша ждут, пока лента до него дойдёт
+     */
+    protected void observeChanges(@Nullable HttpHeaders headers) {
+        String changeSeq = headers != null ? headers.getFirst(ResponseCache.CHANGE_SEQ_HEADER) : null;
+        if (responseCache != null && changeSeq != null) {
+            responseCache.requireSeq(Long.parseLong(changeSeq));
+        }
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        Mono<ResponseEntity<Object>> request = webClient != null
+                ? exchange(method, path, userId, parameters, body)
+                : Mono.fromCallable(() -> exchangeBlocking(method, path, userId, parameters, body));
+        if (requestCoalescer == null) {
+            return request;
+        }
+        if (method == HttpMethod.GET) {
+            return requestCoalescer.coalesce(requestKey(path, userId, parameters), request);
+        }
+        //До ответа клиенту: GET, отправленный им после ответа на запись, не присоединится к более раннему
+        return request
+                .doOnSuccess(response -> requestCoalescer.advance())
+                .doOnError(e -> requestCoalescer.advance());
+    }
+
+    private String requestKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return ResponseCache.key(rest.getUriTemplateHandler()
+                .expand(path, parameters != null ? parameters : Map.of()).toString(), userId);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+        return requestWithBody.exchangeToMono(response -> response.bodyToMono(byte[].class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(responseBody -> {
+                    observeChanges(response.headers().asHttpHeaders());
+                    return prepareGatewayResponse(response.statusCode(), response.headers().asHttpHeaders(),
+                            responseBody.orElse(null));
+                }));
+    }
+
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, String path, Long userId,
+                                                        @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            observeChanges(e.getResponseHeaders());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        observeChanges(shareitServerResponse.getHeaders());
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -0,0 +1,65 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Один запрос на сервер для одинаковых идемпотентных запросов: пришедшие, пока такой же запрос ждёт ответа,
+ * ждут его и получают те же байты ответа, а не обращаются к серверу снова.
+ * Запрос, пришедший после ответа, уходит на сервер как обычно, как и пришедший после {@link #advance}:
+ * его вызывают записи и сбросы кэша, поэтому запрос не присоединяется к запросу, который может быть старше них.
+ * Доля объединённых - shared / (shared + sent) в shareit.gateway.requests.coalesced
+ */
+@Component
+public class RequestCoalescer {
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter sent;
+    private final Counter shared;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.sent = Counter.builder("shareit.gateway.requests.coalesced")
+                .description("Idempotent requests sent to ShareIt-server or joined to an identical one in flight")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.shared = Counter.builder("shareit.gateway.requests.coalesced")
+                .description("Idempotent requests sent to ShareIt-server or joined to an identical one in flight")
+                .tag("result", "shared")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.requests.in.flight", inFlight, Map::size)
+                .description("Distinct idempotent requests waiting for ShareIt-server")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подписывается на request, только если запрос с тем же ключом не ждёт ответа, иначе присоединяется к нему
+     */
+    public Mono<ResponseEntity<Object>> coalesce(String key, Mono<ResponseEntity<Object>> request) {
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<ResponseEntity<Object>> flight = inFlight.computeIfAbsent(generation.get() + " " + key, k -> {
+                leader[0] = true;
+                return request
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            (leader[0] ? sent : shared).increment();
+            return flight;
+        });
+    }
+
+    /**
+     * Запросы после вызова не присоединяются к уже отправленным
+     */
+    public void advance() {
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один пул соединений с ShareIt-server на всех клиентов шлюза.
+ * Состояние пула публикуется в метриках httpcomponents.httpclient.pool.*,
+ * время ожидания соединения из пула - в shareit.server.connection.lease.
+ * В режиме reactive обычные запросы идут через WebClient на Reactor Netty со своим пулом на reactive-max-total,
+ * его состояние - в метриках reactor.netty.connection.provider.*. Пул HttpClient остаётся
+ * для потоковой выгрузки пользователей и импорта вещей
+ */
+@Configuration
+@EnableConfigurationProperties(ServerHttpClientProperties.class)
+public class ServerHttpClientConfig {
+    static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager serverConnectionManager(ServerHttpClientProperties properties,
+                                                                      MeterRegistry meterRegistry) {
+        Timer leaseTimer = Timer.builder("shareit.server.connection.lease")
+                .description("Time spent waiting for a pooled connection to ShareIt-server")
+                .tag("pool", POOL_NAME)
+                .register(meterRegistry);
+        PoolingHttpClientConnectionManager connectionManager = new LeaseTimingConnectionManager(leaseTimer);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient serverHttpClient(ServerHttpClientProperties properties,
+                                                PoolingHttpClientConnectionManager serverConnectionManager) {
+        long keepAlive = properties.getKeepAlive().toMillis();
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "shareit-server.http-client", name = "mode", havingValue = "reactive",
+            matchIfMissing = true)
+    public ConnectionProvider serverConnectionProvider(ServerHttpClientProperties properties) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(properties.getReactiveMaxTotal())
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit-server.http-client", name = "mode", havingValue = "reactive",
+            matchIfMissing = true)
+    public WebClient serverWebClient(WebClient.Builder builder, ServerHttpClientProperties properties,
+                                     ConnectionProvider serverConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getSocketTimeout());
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
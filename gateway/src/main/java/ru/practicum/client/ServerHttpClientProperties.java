@@ -0,0 +1,62 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки общего пула соединений с ShareIt-server
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class ServerHttpClientProperties {
+    /**
+     * reactive - запросы к серверу идут через WebClient и не занимают поток на время ожидания ответа,
+     * blocking - через RestTemplate, поток запроса ждёт ответа сервера.
+     * Режим касается только исходящих запросов: входящие запросы в обоих режимах обслуживает Spring MVC на Tomcat
+     */
+    private Mode mode = Mode.REACTIVE;
+    /**
+     * Всего соединений в пуле
+     */
+    private int maxTotal = 200;
+    /**
+     * Соединений в пуле WebClient. В режиме reactive соединение не занимает поток,
+     * поэтому пул рассчитан на число одновременных медленных запросов, а не на число потоков
+     */
+    private int reactiveMaxTotal = 2000;
+    /**
+     * Соединений с одним адресом. Все клиенты ходят на один сервер, поэтому по умолчанию это почти весь пул
+     */
+    private int maxPerRoute = 100;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * Наибольшая пауза между пакетами ответа
+     */
+    private Duration socketTimeout = Duration.ofSeconds(60);
+    /**
+     * Наибольшее ожидание свободного соединения из пула
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    /**
+     * Сколько держать соединение открытым, если сервер не прислал заголовок Keep-Alive.
+     * Должно быть меньше таймаута простоя на стороне сервера
+     */
+    private Duration keepAlive = Duration.ofSeconds(15);
+    /**
+     * Простаивающие дольше соединения закрываются фоновым потоком
+     */
+    private Duration idleTimeout = Duration.ofSeconds(15);
+    /**
+     * Простоявшее дольше соединение проверяется перед выдачей из пула
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    public enum Mode {
+        BLOCKING,
+        REACTIVE
+    }
+}
@@ -7,16 +7,20 @@ import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.batch.BatchController;
 import ru.practicum.booking.BookingController;
 import ru.practicum.item.ItemController;
 import ru.practicum.request.ItemRequestController;
 import ru.practicum.user.UserController;
 
+import javax.validation.ConstraintViolationException;
+
 @RestControllerAdvice(assignableTypes = {
         UserController.class,
         ItemController.class,
         BookingController.class,
-        ItemRequestController.class
+        ItemRequestController.class,
+        BatchController.class
 })
 @Slf4j
 public class ErrorHandler {
@@ -40,4 +44,11 @@ public class ErrorHandler {
         log.error("Получен статус 400 Bad Request {}", e.getMessage(), e);
         return new ErrorResponse(e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handlerConstraintViolationException(final ConstraintViolationException e) {
+        log.error("Получен статус 400 Bad Request {}", e.getMessage(), e);
+        return new ErrorResponse(e.getMessage());
+    }
 }
\ No newline at end of file
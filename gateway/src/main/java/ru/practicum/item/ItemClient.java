@@ -1,63 +1,119 @@
 package ru.practicum.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.cache.ResponseCache;
+import ru.practicum.cache.dto.ChangeType;
 import ru.practicum.client.BaseClient;
+import ru.practicum.client.RequestCoalescer;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportReport;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient serverHttpClient, ObjectProvider<WebClient> serverWebClient,
+                      ResponseCache responseCache, RequestCoalescer requestCoalescer, ObjectMapper objectMapper) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> streamingRequestFactory(serverHttpClient))
+                        .build(),
+                withBaseUrl(serverWebClient.getIfAvailable(), serverUrl + API_PREFIX),
+                responseCache,
+                requestCoalescer
         );
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Тело запроса пишется в соединение по мере формирования, поэтому импорт не держится в памяти целиком
+     */
+    private static ClientHttpRequestFactory streamingRequestFactory(HttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setBufferRequestBody(false);
+        return factory;
     }
 
-    public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size) {
+    /**
+     * lastBooking и nextBooking в ответе сдвигаются без записи, когда начинается следующее бронирование:
+     * до этого момента сервер ограничивает хранение ответа заголовком MAX_AGE_HEADER
+     */
+    public Mono<ResponseEntity<Object>> getUserItems(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return cachedGet("?from={from}&size={size}", userId, parameters, ResponseCache.tag(ChangeType.ITEM));
     }
 
-    public ResponseEntity<Object> getItemById(long itemId, long userId) {
-
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(long itemId, long userId) {
+        return cachedGet("/" + itemId, userId, null, ResponseCache.tag(ChangeType.ITEM, itemId));
     }
 
-    public ResponseEntity<Object> searchItems(long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItems(long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return cachedGet("/search?text={text}&from={from}&size={size}", userId, parameters,
+                ResponseCache.tag(ChangeType.ITEM));
     }
 
-    public ResponseEntity<Object> addItem(ItemDto itemDto, long userId) {
+    public Mono<ResponseEntity<Object>> addItem(ItemDto itemDto, long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, long itemId, long userId) {
+    /**
+     * Передаёт на сервер строки NDJSON, которые пишет rows, и возвращает его ItemImportReport
+     */
+    public ResponseEntity<Object> importItems(long userId, StreamingHttpOutputMessage.Body rows) {
+        try {
+            return rest.execute("/import", HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                rows.writeTo(request.getBody());
+            }, response -> {
+                observeChanges(response.getHeaders());
+                return ResponseEntity.status(response.getStatusCode())
+                        .body(objectMapper.readValue(response.getBody(), ItemImportReport.class));
+            });
+        } catch (HttpStatusCodeException e) {
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(ItemDto itemDto, long itemId, long userId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> addComment(CommentDto commentDto, long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> addComment(CommentDto commentDto, long itemId, long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -2,9 +2,12 @@ package ru.practicum.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.error.ValidationRequestException;
 import ru.practicum.item.dto.CommentDto;
 import ru.practicum.item.dto.ItemDto;
@@ -12,6 +15,7 @@ import ru.practicum.item.dto.ItemDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
 import java.util.Collections;
 
 @RestController
@@ -21,52 +25,61 @@ import java.util.Collections;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemClient itemClient;
+    private final ItemImporter itemImporter;
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                               @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                               @Positive @RequestParam(defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                     @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                     @Positive @RequestParam(defaultValue = "10") Integer size) {
         log.info("Get user items userId = {}, from = {}, size = {}", userId, from, size);
         return itemClient.getUserItems(userId, from, size);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable long itemId,
-                                              @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getItemById(@PathVariable long itemId,
+                                                    @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get item {}, userId={}", itemId, userId);
         return itemClient.getItemById(itemId, userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam String text,
-                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam String text,
+                                                    @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(defaultValue = "10") Integer size) {
         if (text == null) throw new ValidationRequestException("Parameter 'text' cannot be null");
-        if (text.isEmpty()) return ResponseEntity.ok(Collections.emptyList());
+        if (text.isEmpty()) return Mono.just(ResponseEntity.ok(Collections.emptyList()));
         log.info("Search items, text={}, from = {}, size = {}", text, from, size);
         return itemClient.searchItems(userId, text, from, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@Valid @RequestBody ItemDto itemDto,
-                                          @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> addItem(@Valid @RequestBody ItemDto itemDto,
+                                                @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Add item {}, userId={}", itemDto, userId);
         return itemClient.addItem(itemDto, userId);
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ItemRowReader.TEXT_CSV_VALUE})
+    public ResponseEntity<Object> importItems(InputStream body,
+                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                              @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Import items, contentType={}, userId={}", contentType, userId);
+        return itemImporter.importItems(body, MediaType.parseMediaType(contentType), userId);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
-                                             @PathVariable long itemId,
-                                             @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemDto itemDto,
+                                                   @PathVariable long itemId,
+                                                   @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Update item {}, itemId = {}, userId={}", itemDto, itemId, userId);
         return itemClient.updateItem(itemDto, itemId, userId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@Valid @RequestBody CommentDto commentDto,
-                                             @PathVariable long itemId,
-                                             @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> addComment(@Valid @RequestBody CommentDto commentDto,
+                                                   @PathVariable long itemId,
+                                                   @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Add comment {}, itemId = {}, userId={}", commentDto, itemId, userId);
         return itemClient.addComment(commentDto, itemId, userId);
     }
@@ -0,0 +1,93 @@
+package ru.practicum.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import ru.practicum.item.dto.ItemDto;
+import ru.practicum.item.dto.ItemImportError;
+import ru.practicum.item.dto.ItemImportReport;
+import ru.practicum.item.dto.ItemImportRow;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт вещей. Строки разбираются и проверяются по правилам ItemDto по одной,
+ * корректные передаются на сервер потоком NDJSON, пока тело запроса ещё читается.
+ * Отклонённые строки добавляются в отчёт сервера, в котором остаются не больше MAX_ERRORS ошибок
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImporter {
+    static final int MAX_ERRORS = 1000;
+
+    private final ItemClient itemClient;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public ResponseEntity<Object> importItems(InputStream body, MediaType contentType, long userId) {
+        ItemImportReport rejected = new ItemImportReport();
+        ResponseEntity<Object> response = itemClient.importItems(userId,
+                out -> writeValidRows(body, contentType, out, rejected));
+
+        if (!(response.getBody() instanceof ItemImportReport)) {
+            return response;
+        }
+        ItemImportReport report = (ItemImportReport) response.getBody();
+        List<ItemImportError> errors = new ArrayList<>(rejected.getErrors());
+        errors.addAll(report.getErrors());
+        errors.sort(Comparator.comparingLong(ItemImportError::getLine));
+        report.setErrors(errors.size() > MAX_ERRORS ? new ArrayList<>(errors.subList(0, MAX_ERRORS)) : errors);
+        report.setFailed(report.getFailed() + rejected.getFailed());
+        log.info("Import finished, userId={}, imported={}, failed={}", userId, report.getImported(), report.getFailed());
+        return ResponseEntity.status(response.getStatusCode()).body(report);
+    }
+
+    private void writeValidRows(InputStream body, MediaType contentType, OutputStream out,
+                                ItemImportReport rejected) throws IOException {
+        try (ItemRowReader rows = new ItemRowReader(body, contentType, objectMapper)) {
+            ItemRowReader.ItemRow row;
+            while ((row = rows.next()) != null) {
+                String error = row.getError() != null ? row.getError() : validate(row.getItem());
+                if (error != null) {
+                    reject(rejected, row.getLine(), error);
+                    continue;
+                }
+                ItemDto item = row.getItem();
+                out.write(objectMapper.writeValueAsBytes(new ItemImportRow(row.getLine(), item.getName(),
+                        item.getDescription(), item.getAvailable(), item.getRequestId())));
+                out.write('\n');
+            }
+        }
+    }
+
+    private String validate(ItemDto item) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reject(ItemImportReport rejected, long line, String error) {
+        rejected.setFailed(rejected.getFailed() + 1);
+        if (rejected.getErrors().size() < MAX_ERRORS) {
+            rejected.getErrors().add(new ItemImportError(line, error));
+        }
+    }
+}
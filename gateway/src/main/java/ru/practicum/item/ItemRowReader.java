@@ -0,0 +1,221 @@
+package ru.practicum.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import ru.practicum.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Читает строки импорта по одной, поэтому расход памяти не зависит от размера файла.
+ * NDJSON: один объект ItemDto в строке. CSV: строка заголовка со столбцами name, description, available, requestId
+ * в любом порядке; поле в кавычках может содержать запятые и переводы строк, "" внутри кавычек - это кавычка.
+ * Пустые строки пропускаются, строки длиннее MAX_ROW_LENGTH символов, считая разделители и кавычки, - ошибки
+ */
+class ItemRowReader implements Closeable {
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final int MAX_ROW_LENGTH = 64 * 1024;
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long line = 1;
+    private int pending = NONE;
+
+    ItemRowReader(InputStream body, MediaType contentType, ObjectMapper objectMapper) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        this.reader = new BufferedReader(new InputStreamReader(body, charset));
+        this.csv = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Следующая строка или null в конце тела
+     */
+    ItemRow next() throws IOException {
+        while (true) {
+            Record record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.isBlank()) {
+                continue;
+            }
+            if (record.isTooLong()) {
+                return new ItemRow(record.getLine(), null,
+                        String.format("Row is longer than %d characters", MAX_ROW_LENGTH));
+            }
+            if (!csv) {
+                return parseJson(record);
+            }
+            if (columns == null) {
+                columns = readHeader(record);
+                continue;
+            }
+            return parseCsv(record);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ItemRow parseJson(Record record) {
+        try {
+            return new ItemRow(record.getLine(), objectMapper.readValue(record.getFields().get(0), ItemDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new ItemRow(record.getLine(), null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> readHeader(Record record) {
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < record.getFields().size(); i++) {
+            header.put(record.getFields().get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return header;
+    }
+
+    private ItemRow parseCsv(Record record) {
+        ItemDto item = ItemDto.builder()
+                .name(field(record, "name"))
+                .description(field(record, "description"))
+                .build();
+
+        String available = field(record, "available");
+        if (available != null && !available.isBlank()) {
+            if (available.trim().equalsIgnoreCase("true")) {
+                item.setAvailable(true);
+            } else if (available.trim().equalsIgnoreCase("false")) {
+                item.setAvailable(false);
+            } else {
+                return new ItemRow(record.getLine(), null, "available: must be true or false");
+            }
+        }
+
+        String requestId = field(record, "requestid");
+        if (requestId != null && !requestId.isBlank()) {
+            try {
+                item.setRequestId(Long.parseLong(requestId.trim()));
+            } catch (NumberFormatException e) {
+                return new ItemRow(record.getLine(), null, "requestId: must be a number");
+            }
+        }
+        return new ItemRow(record.getLine(), item, null);
+    }
+
+    private String field(Record record, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.getFields().size() ? null : record.getFields().get(index);
+    }
+
+    /**
+     * Читает одну запись CSV или одну строку NDJSON. Перевод строки внутри кавычек CSV не заканчивает запись
+     */
+    private Record readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        long start = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean tooLong = false;
+        boolean quoted = false;
+        while (c != -1) {
+            if (!quoted && c == '\n') {
+                line++;
+                break;
+            }
+            boolean append = false;
+            if ((quoted || c != '\r') && length++ >= MAX_ROW_LENGTH && !tooLong) {
+                tooLong = true;
+                fields.clear();
+                field.setLength(0);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        length++;
+                        append = true;
+                    } else {
+                        quoted = false;
+                        pending = next;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append = true;
+                }
+            } else if (csv && c == ',') {
+                if (!tooLong) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+            } else if (csv && c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                append = true;
+            }
+            if (append && !tooLong) {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return new Record(start, fields, tooLong);
+    }
+
+    private int read() throws IOException {
+        if (pending != NONE) {
+            int c = pending;
+            pending = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class ItemRow {
+        private final long line;
+        private final ItemDto item;
+        /**
+         * Ошибка разбора, null, если строка прочитана
+         */
+        private final String error;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Record {
+        private final long line;
+        private final List<String> fields;
+        private final boolean tooLong;
+
+        boolean isBlank() {
+            return !tooLong && fields.size() == 1 && fields.get(0).isBlank();
+        }
+    }
+}
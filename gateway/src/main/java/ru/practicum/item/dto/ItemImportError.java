@@ -0,0 +1,13 @@
+package ru.practicum.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportError {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportReport {
+    private long imported;
+    private long failed;
+    private List<ItemImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package ru.practicum.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка, передаваемая на сервер при импорте: поля вещи и номер строки в исходном файле
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportRow {
+    private long line;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long requestId;
+}
@@ -1,15 +1,23 @@
 package ru.practicum.request;
 
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.cache.ResponseCache;
+import ru.practicum.cache.dto.ChangeType;
 import ru.practicum.client.BaseClient;
+import ru.practicum.client.RequestCoalescer;
 import ru.practicum.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -17,32 +25,45 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             HttpClient serverHttpClient, ObjectProvider<WebClient> serverWebClient,
+                             ResponseCache responseCache, RequestCoalescer requestCoalescer) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                withBaseUrl(serverWebClient.getIfAvailable(), serverUrl + API_PREFIX),
+                responseCache,
+                requestCoalescer
         );
     }
 
-    public ResponseEntity<Object> createRequest(ItemRequestDto itemRequestDto, long userId) {
+    public Mono<ResponseEntity<Object>> createRequest(ItemRequestDto itemRequestDto, long userId) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getOwnerRequests(long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Object>> getOwnerRequests(long userId) {
+        return cachedGet("", userId, null, ResponseCache.tag(ChangeType.REQUEST));
     }
 
-    public ResponseEntity<Object> getUserRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    /**
+     * Без курсора сервер листает по from/size, с курсором - по ключу (created, id), начиная после него
+     */
+    public Mono<ResponseEntity<Object>> getUserRequests(long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        ));
+        if (after == null) {
+            return cachedGet("/all?from={from}&size={size}", userId, parameters, ResponseCache.tag(ChangeType.REQUEST));
+        }
+        parameters.put("after", after);
+        return cachedGet("/all?from={from}&size={size}&after={after}", userId, parameters,
+                ResponseCache.tag(ChangeType.REQUEST));
     }
 
-    public ResponseEntity<Object> getRequestById(Long requestId, long userId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getRequestById(Long requestId, long userId) {
+        return cachedGet("/" + requestId, userId, null, ResponseCache.tag(ChangeType.REQUEST, requestId));
     }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -20,29 +21,30 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
-                                                @RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
+                                                      @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Create request {}, userId = {}", itemRequestDto, userId);
         return itemRequestClient.createRequest(itemRequestDto, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getOwnerRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getOwnerRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get owner requests userId = {}", userId);
         return itemRequestClient.getOwnerRequests(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getUserRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                  @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Get user requests userId = {}, from = {}, size = {}", userId, from, size);
-        return itemRequestClient.getUserRequests(userId, from, size);
+    public Mono<ResponseEntity<Object>> getUserRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                        @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false) String after) {
+        log.info("Get user requests userId = {}, from = {}, size = {}, after = {}", userId, from, size, after);
+        return itemRequestClient.getUserRequests(userId, from, size, after);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @PathVariable Long requestId) {
         log.info("Get request by id = {}, userId = {}", requestId, userId);
         return itemRequestClient.getRequestById(requestId, userId);
     }
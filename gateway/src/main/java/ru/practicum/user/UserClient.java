@@ -1,47 +1,127 @@
 package ru.practicum.user;
 
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.cache.ResponseCache;
+import ru.practicum.cache.dto.ChangeType;
 import ru.practicum.client.BaseClient;
+import ru.practicum.client.RequestCoalescer;
 import ru.practicum.user.dto.UserCreateDto;
 import ru.practicum.user.dto.UserUpdateDto;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private static final int DEFAULT_PAGE_SIZE = 10;
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient serverHttpClient, ObjectProvider<WebClient> serverWebClient,
+                      ResponseCache responseCache, RequestCoalescer requestCoalescer) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                withBaseUrl(serverWebClient.getIfAvailable(), serverUrl + API_PREFIX),
+                responseCache,
+                requestCoalescer
         );
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    /**
+     * Без параметров сервер отдаёт всех пользователей, с size - страницу по from/size, с after - страницу после id
+     */
+    public Mono<ResponseEntity<Object>> getAllUsers(Integer from, Integer size, Long after) {
+        if (after == null && size == null) {
+            return cachedGet("", null, null, ResponseCache.tag(ChangeType.USER));
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from == null ? 0 : from);
+        parameters.put("size", size == null ? DEFAULT_PAGE_SIZE : size);
+        if (after == null) {
+            return cachedGet("?from={from}&size={size}", null, parameters, ResponseCache.tag(ChangeType.USER));
+        }
+        parameters.put("after", after);
+        return cachedGet("?size={size}&after={after}", null, parameters, ResponseCache.tag(ChangeType.USER));
+    }
+
+    /**
+     * Код ответа сервера известен до того, как шлюз начнёт свой ответ. Успешный NDJSON-ответ копируется клиенту
+     * по мере получения, не разбираясь и не накапливаясь в памяти, ошибка передаётся со своим кодом и телом
+     */
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        ClientHttpResponse response = openStream();
+        boolean streaming = false;
+        try {
+            HttpStatus status = response.getStatusCode();
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status)
+                    .headers(prepareGatewayResponse(status, response.getHeaders(), null).getHeaders());
+            if (!status.is2xxSuccessful()) {
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                return responseBuilder.body(out -> out.write(body));
+            }
+            streaming = true;
+            return responseBuilder.body(out -> {
+                try (response) {
+                    StreamUtils.copy(response.getBody(), out);
+                }
+            });
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for users stream: " + e.getMessage(), e);
+        } finally {
+            if (!streaming) {
+                response.close();
+            }
+        }
+    }
+
+    private ClientHttpResponse openStream() {
+        try {
+            ClientHttpRequest request = rest.getRequestFactory()
+                    .createRequest(rest.getUriTemplateHandler().expand(""), HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON));
+            return request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for users stream: " + e.getMessage(), e);
+        }
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUserById(long userId) {
+        return cachedGet("/" + userId, null, null, ResponseCache.tag(ChangeType.USER, userId));
     }
 
-    public ResponseEntity<Object> saveNewUser(UserCreateDto userDto) {
+    public Mono<ResponseEntity<Object>> saveNewUser(UserCreateDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(UserUpdateDto userDto, long userId) {
+    public Mono<ResponseEntity<Object>> updateUser(UserUpdateDto userDto, long userId) {
         return patch("/" + userId, userDto);
     }
 
-    public void deleteUser(long userId) {
-        delete("/" + userId);
+    public Mono<Void> deleteUser(long userId) {
+        return delete("/" + userId).then();
     }
 }
@@ -2,47 +2,62 @@ package ru.practicum.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.user.dto.UserCreateDto;
 import ru.practicum.user.dto.UserUpdateDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 @RequestMapping(path = "/users")
 public class UserController {
     private final UserClient userClient;
 
-    @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
-        log.info("Get All Users");
-        return userClient.getAllUsers();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> getAllUsers(@PositiveOrZero @RequestParam(required = false) Integer from,
+                                                    @Positive @RequestParam(required = false) Integer size,
+                                                    @PositiveOrZero @RequestParam(required = false) Long after) {
+        log.info("Get All Users from={}, size={}, after={}", from, size, after);
+        return userClient.getAllUsers(from, size, after);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Stream All Users");
+        return userClient.streamAllUsers();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable long userId) {
         log.info("Get User By Id {}", userId);
         return userClient.getUserById(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> saveNewUser(@RequestBody @Valid UserCreateDto userDto) {
+    public Mono<ResponseEntity<Object>> saveNewUser(@RequestBody @Valid UserCreateDto userDto) {
         log.info("Save New User {}", userDto);
         return userClient.saveNewUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@RequestBody @Valid UserUpdateDto userDto, @PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody @Valid UserUpdateDto userDto, @PathVariable long userId) {
         log.info("Update User {}, userId={}", userDto, userId);
         return userClient.updateUser(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable long userId) {
+    public Mono<Void> deleteUser(@PathVariable long userId) {
         log.info("Delete User {}", userId);
-        userClient.deleteUser(userId);
+        return userClient.deleteUser(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package ru.practicum;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ShareIt-server для тестов шлюза: отвечает заданными ответами на "METHOD /path" и считает запросы.
+ * На незаданный путь отвечает 404 с JSON-ошибкой
+ */
+public class StubServer {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    private StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static StubServer start() {
+        try {
+            return new StubServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void on(String method, String path, Handler handler) {
+        handlers.put(method + " " + path, handler);
+    }
+
+    public void on(String method, String path, Response response) {
+        on(method, path, request -> response);
+    }
+
+    public int calls(String method, String path) {
+        AtomicInteger count = calls.get(method + " " + path);
+        return count == null ? 0 : count.get();
+    }
+
+    public void reset() {
+        handlers.clear();
+        calls.clear();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static Response json(int status, String body) {
+        return new Response(status, Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE), body);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String key = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+        calls.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        Handler handler = handlers.get(key);
+        Response response;
+        try {
+            Request request = new Request(exchange.getRequestURI().getRawQuery(), exchange.getRequestHeaders(),
+                    new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            response = handler != null ? handler.handle(request) : json(404, "{\"error\":\"Not stubbed: " + key + "\"}");
+        } catch (Exception e) {
+            response = json(500, "{\"error\":\"" + e + "\"}");
+        }
+        byte[] body = response.getBody() != null ? response.getBody().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        response.getHeaders().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        exchange.sendResponseHeaders(response.getStatus(), body.length > 0 ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        Response handle(Request request) throws Exception;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Request {
+        private final String query;
+        private final Map<String, List<String>> headers;
+        private final String body;
+
+        public String header(String name) {
+            return headers.entrySet().stream()
+                    .filter(header -> header.getKey().equalsIgnoreCase(name))
+                    .map(header -> header.getValue().get(0))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Response {
+        private final int status;
+        private final Map<String, String> headers;
+        private final String body;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.batch;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-gateway.response-cache.enabled=false")
+class BatchControllerTest {
+    private static final StubServer SERVER = StubServer.start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+    }
+
+    @Test
+    void executeBatchKeepsOrderOfMixedResults() {
+        AtomicReference<String> userId = new AtomicReference<>();
+        //Первый ответ приходит последним, но в результате остаётся первым
+        SERVER.on("GET", "/users/1", request -> {
+            Thread.sleep(300);
+            return StubServer.json(200, "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}");
+        });
+        SERVER.on("GET", "/items/2", request -> {
+            userId.set(request.header("X-Sharer-User-Id"));
+            return StubServer.json(404, "{\"error\":\"Предмета с id = 2 не существует\"}");
+        });
+        SERVER.on("POST", "/users", StubServer.json(201, "{\"id\":2,\"name\":\"new\",\"email\":\"new@mail.ru\"}"));
+
+        webTestClient.post().uri("/batch")
+                .header("X-Sharer-User-Id", "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[" +
+                        "{\"id\":\"user\",\"method\":\"GET\",\"path\":\"/users/1\"}," +
+                        "{\"id\":\"item\",\"method\":\"get\",\"path\":\"/items/2\"}," +
+                        "{\"id\":\"put\",\"method\":\"PUT\",\"path\":\"/users/1\"}," +
+                        "{\"id\":\"invalid\",\"method\":\"GET\",\"path\":\"/users?from=0&size=0\"}," +
+                        "{\"id\":\"created\",\"method\":\"POST\",\"path\":\"/users\"," +
+                        "\"body\":{\"name\":\"new\",\"email\":\"new@mail.ru\"}}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].id").isEqualTo("user")
+                .jsonPath("$[0].status").isEqualTo(200)
+                .jsonPath("$[0].body.name").isEqualTo("user")
+                .jsonPath("$[1].id").isEqualTo("item")
+                .jsonPath("$[1].status").isEqualTo(404)
+                .jsonPath("$[1].body.error").isEqualTo("Предмета с id = 2 не существует")
+                .jsonPath("$[2].id").isEqualTo("put")
+                .jsonPath("$[2].status").isEqualTo(400)
+                .jsonPath("$[2].body.error").isEqualTo("Unsupported method: PUT")
+                .jsonPath("$[3].id").isEqualTo("invalid")
+                .jsonPath("$[3].status").isEqualTo(400)
+                .jsonPath("$[3].body.error").exists()
+                .jsonPath("$[4].id").isEqualTo("created")
+                .jsonPath("$[4].status").isEqualTo(201)
+                .jsonPath("$[4].body.id").isEqualTo(2);
+        assertEquals("5", userId.get());
+        assertEquals(1, SERVER.calls("GET", "/users/1"));
+        assertEquals(0, SERVER.calls("GET", "/users"));
+    }
+
+    @Test
+    void executeBatchRejectsDotSegmentsAndEncodedPaths() {
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[" +
+                        "{\"id\":\"dots\",\"method\":\"POST\",\"path\":\"/users/../batch\"}," +
+                        "{\"id\":\"dot\",\"method\":\"GET\",\"path\":\"/users/./1\"}," +
+                        "{\"id\":\"encoded\",\"method\":\"POST\",\"path\":\"/users/%2e%2e/batch\"}," +
+                        "{\"id\":\"batch\",\"method\":\"POST\",\"path\":\"/batch\"}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo(400)
+                .jsonPath("$[0].body.error").isEqualTo("Unsupported path: /users/../batch")
+                .jsonPath("$[1].status").isEqualTo(400)
+                .jsonPath("$[2].status").isEqualTo(400)
+                .jsonPath("$[3].status").isEqualTo(400);
+        assertEquals(0, SERVER.calls("GET", "/users/1"));
+        assertEquals(0, SERVER.calls("POST", "/users"));
+    }
+
+    @Test
+    void executeBatchValidatesEntriesWithControllerRules() {
+        SERVER.on("GET", "/bookings/owner", StubServer.json(200, "[]"));
+
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[" +
+                        "{\"id\":\"email\",\"method\":\"POST\",\"path\":\"/users\"," +
+                        "\"body\":{\"name\":\"new\",\"email\":\"not-email\"}}," +
+                        "{\"id\":\"header\",\"method\":\"GET\",\"path\":\"/items/1\"}," +
+                        "{\"id\":\"state\",\"method\":\"GET\",\"path\":\"/bookings/owner?state=unknown\"}," +
+                        "{\"id\":\"route\",\"method\":\"DELETE\",\"path\":\"/items/1\"}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo(400)
+                .jsonPath("$[1].status").isEqualTo(400)
+                .jsonPath("$[1].body.error").isEqualTo("Заголовок отсутствует: X-Sharer-User-Id")
+                .jsonPath("$[2].status").isEqualTo(400)
+                .jsonPath("$[3].status").isEqualTo(404);
+        assertEquals(0, SERVER.calls("POST", "/users"));
+        assertEquals(0, SERVER.calls("GET", "/bookings/owner"));
+
+        webTestClient.post().uri("/batch")
+                .header("X-Sharer-User-Id", "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"id\":\"owner\",\"method\":\"GET\",\"path\":\"/bookings/owner?state=WAITING&size=5\"}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo(200)
+                .jsonPath("$[0].body.length()").isEqualTo(0);
+        assertEquals(1, SERVER.calls("GET", "/bookings/owner"));
+    }
+
+    @Test
+    void executeBatchWithTooManyRequests() {
+        String entry = "{\"method\":\"GET\",\"path\":\"/users/1\"}";
+
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[" + String.join(",", Collections.nCopies(
+                        BatchController.MAX_BATCH_SIZE + 1, entry)) + "]")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").exists();
+        assertEquals(0, SERVER.calls("GET", "/users/1"));
+    }
+}
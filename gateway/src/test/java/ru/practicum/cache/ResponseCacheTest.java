@@ -0,0 +1,157 @@
+package ru.practicum.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit-gateway.response-cache.poll-timeout=100ms",
+        "shareit-gateway.response-cache.retry-delay=100ms"})
+class ResponseCacheTest {
+    private static final StubServer SERVER = StubServer.start();
+    private static final String ITEM = "{\"id\":2,\"name\":\"Дрель\",\"nextBooking\":{\"id\":4,\"bookerId\":3}}";
+    /**
+     * Страницы, которые лента отдаст следующими, пустая очередь - пустая страница
+     */
+    private final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+    private final AtomicLong last = new AtomicLong();
+    /**
+     * Новая эпоха в каждом тесте, как после перезапуска сервера: шлюз начинает слежение заново с пустым кэшем
+     */
+    private final String epoch = UUID.randomUUID().toString();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        SERVER.reset();
+        SERVER.on("GET", "/changes", request -> {
+            String page = request.getQuery() == null ? null : changes.poll(100, TimeUnit.MILLISECONDS);
+            return StubServer.json(200, page != null ? page : page(last.get(), ""));
+        });
+        awaitNextPoll();
+    }
+
+    @Test
+    void repeatedGetIsAnsweredFromCache() {
+        SERVER.on("GET", "/users/1", StubServer.json(200, user("user")));
+
+        getUser("user");
+        getUser("user");
+
+        assertEquals(1, SERVER.calls("GET", "/users/1"));
+    }
+
+    @Test
+    void cacheWaitsForChangeSeqOfOwnWrite() throws InterruptedException {
+        SERVER.on("GET", "/users/1", StubServer.json(200, user("user")));
+        getUser("user");
+        SERVER.on("PATCH", "/users/1", new StubServer.Response(200, Map.of(
+                HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
+                ResponseCache.CHANGE_SEQ_HEADER, String.valueOf(last.get() + 1)), user("updated")));
+        SERVER.on("GET", "/users/1", StubServer.json(200, user("updated")));
+
+        webTestClient.patch().uri("/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"updated\"}")
+                .exchange()
+                .expectStatus().isOk();
+        //Лента ещё не дошла до записи: старый ответ из кэша не отдаётся и новый не кэшируется
+        getUser("updated");
+        getUser("updated");
+        assertEquals(3, SERVER.calls("GET", "/users/1"));
+
+        long seq = last.incrementAndGet();
+        changes.add(page(seq, "{\"seq\":" + seq + ",\"type\":\"USER\",\"id\":1}"));
+        await(changes::isEmpty);
+        awaitNextPoll();
+        getUser("updated");
+        getUser("updated");
+        assertEquals(4, SERVER.calls("GET", "/users/1"));
+    }
+
+    @Test
+    void itemIsCachedNoLongerThanMaxAge() throws InterruptedException {
+        SERVER.on("GET", "/items/2", new StubServer.Response(200, Map.of(
+                HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
+                ResponseCache.MAX_AGE_HEADER, "300"), ITEM));
+
+        getItem();
+        getItem();
+        assertEquals(1, SERVER.calls("GET", "/items/2"));
+
+        Thread.sleep(400);
+        getItem();
+        assertEquals(2, SERVER.calls("GET", "/items/2"));
+    }
+
+    private void getItem() {
+        webTestClient.get().uri("/items/2")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ResponseCache.MAX_AGE_HEADER)
+                .expectBody(String.class).isEqualTo(ITEM);
+    }
+
+    private void getUser(String name) {
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo(user(name));
+    }
+
+    private static String user(String name) {
+        return "{\"id\":1,\"name\":\"" + name + "\",\"email\":\"user@mail.ru\"}";
+    }
+
+    private String page(long last, String changes) {
+        return "{\"epoch\":\"" + epoch + "\",\"last\":" + last + ",\"reset\":false,\"changes\":[" + changes + "]}";
+    }
+
+    /**
+     * Шлюз применяет страницу ленты перед следующим запросом к ней
+     */
+    private static void awaitNextPoll() throws InterruptedException {
+        int polls = SERVER.calls("GET", "/changes");
+        await(() -> SERVER.calls("GET", "/changes") > polls + 1);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Условие не выполнилось за 5 секунд");
+            Thread.sleep(10);
+        }
+    }
+}
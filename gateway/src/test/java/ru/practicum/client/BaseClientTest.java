@@ -0,0 +1,100 @@
+package ru.practicum.client;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+import ru.practicum.cache.ResponseCache;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-gateway.response-cache.enabled=false")
+class BaseClientTest {
+    /**
+     * Свой на каждый класс: наследник с другими настройками запускается после остановки сервера этого класса
+     */
+    static StubServer SERVER;
+    private static final String REQUEST = "{\"id\":3,\"description\":\"Нужна дрель\",\"items\":[]}";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeAll
+    static void startServer() {
+        SERVER = StubServer.start();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> SERVER.url());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+    }
+
+    @Test
+    void passesServerBodyAndHeaders() {
+        AtomicReference<String> userId = new AtomicReference<>();
+        SERVER.on("GET", "/requests/3", request -> {
+            userId.set(request.header("X-Sharer-User-Id"));
+            return new StubServer.Response(200, Map.of(
+                    HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
+                    "X-Shareit-Trace", "trace-1",
+                    ResponseCache.CHANGE_SEQ_HEADER, "7"), REQUEST);
+        });
+
+        webTestClient.get().uri("/requests/3")
+                .header("X-Sharer-User-Id", "5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals("X-Shareit-Trace", "trace-1")
+                .expectHeader().doesNotExist(ResponseCache.CHANGE_SEQ_HEADER)
+                .expectBody(String.class).isEqualTo(REQUEST);
+        assertEquals("5", userId.get());
+        assertEquals(1, SERVER.calls("GET", "/requests/3"));
+    }
+
+    @Test
+    void passesServerErrorWithJsonContentType() {
+        SERVER.on("POST", "/users", StubServer.json(409, "{\"error\":\"Пользователь уже существует\"}"));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"user\",\"email\":\"user@mail.ru\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(String.class).isEqualTo("{\"error\":\"Пользователь уже существует\"}");
+    }
+
+    @Test
+    void passesServerResponseWithoutBody() {
+        SERVER.on("GET", "/requests/3", new StubServer.Response(204, Map.of(), null));
+
+        webTestClient.get().uri("/requests/3")
+                .header("X-Sharer-User-Id", "5")
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectBody().isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import ru.practicum.StubServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Те же проверки, что в {@link BaseClientTest}, в режиме blocking - через RestTemplate и пул HttpClient
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit-gateway.response-cache.enabled=false",
+        "shareit-server.http-client.mode=blocking"})
+class BlockingBaseClientTest extends BaseClientTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void blockingModeSendsRequestsThroughHttpClientPool() {
+        SERVER.on("GET", "/users/1", StubServer.json(200, "{\"id\":1}"));
+        long leases = meterRegistry.get("shareit.server.connection.lease").timer().count();
+
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"id\":1}");
+
+        assertFalse(context.containsBean("serverWebClient"));
+        assertFalse(context.containsBean("serverConnectionProvider"));
+        assertEquals(leases + 1, meterRegistry.get("shareit.server.connection.lease").timer().count());
+    }
+}
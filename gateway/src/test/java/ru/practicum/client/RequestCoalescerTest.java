@@ -0,0 +1,108 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-gateway.response-cache.enabled=false")
+class RequestCoalescerTest {
+    private static final StubServer SERVER = StubServer.start();
+    private static final String USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+        SERVER.on("GET", "/users/1", request -> {
+            release.await(5, TimeUnit.SECONDS);
+            return StubServer.json(200, USER);
+        });
+    }
+
+    @Test
+    void concurrentGetsShareOneServerCall() throws Exception {
+        double shared = coalesced("shared");
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(this::getUser);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(this::getUser);
+        await(() -> coalesced("shared") == shared + 1);
+        release.countDown();
+
+        assertEquals(USER, first.get(5, TimeUnit.SECONDS));
+        assertEquals(USER, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, SERVER.calls("GET", "/users/1"));
+    }
+
+    @Test
+    void getAfterWriteIsNotJoinedToEarlierOne() throws Exception {
+        SERVER.on("PATCH", "/users/1", StubServer.json(200, USER));
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(this::getUser);
+        await(() -> SERVER.calls("GET", "/users/1") == 1);
+        webTestClient.patch().uri("/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"user\"}")
+                .exchange()
+                .expectStatus().isOk();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(this::getUser);
+        await(() -> SERVER.calls("GET", "/users/1") == 2);
+        release.countDown();
+
+        assertEquals(USER, first.get(5, TimeUnit.SECONDS));
+        assertEquals(USER, second.get(5, TimeUnit.SECONDS));
+    }
+
+    private String getUser() {
+        return webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private double coalesced(String result) {
+        return meterRegistry.get("shareit.gateway.requests.coalesced").tag("result", result).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Условие не выполнилось за 5 секунд");
+            Thread.sleep(10);
+        }
+    }
+}
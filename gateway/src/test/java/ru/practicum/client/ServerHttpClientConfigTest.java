@@ -0,0 +1,96 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit-gateway.response-cache.enabled=false",
+        "shareit-server.http-client.max-total=7",
+        "shareit-server.http-client.max-per-route=3"})
+class ServerHttpClientConfigTest {
+    private static final StubServer SERVER = StubServer.start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationContext context;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+    }
+
+    @Test
+    void poolLimitsArePublished() {
+        assertEquals(7, connectionManager.getMaxTotal());
+        assertEquals(3, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(7, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", ServerHttpClientConfig.POOL_NAME)
+                .gauge().value());
+    }
+
+    @Test
+    void sequentialRequestsReuseOnePooledConnection() {
+        SERVER.on("GET", "/users", new StubServer.Response(200,
+                Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE), "{\"id\":1}\n"));
+        long leases = meterRegistry.get("shareit.server.connection.lease").timer().count();
+
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/users")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        assertEquals(3, SERVER.calls("GET", "/users"));
+        assertEquals(leases + 3, meterRegistry.get("shareit.server.connection.lease").timer().count());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    void reactiveModeSendsRequestsPastHttpClientPool() {
+        SERVER.on("GET", "/users/1", StubServer.json(200, "{\"id\":1}"));
+        long leases = meterRegistry.get("shareit.server.connection.lease").timer().count();
+
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"id\":1}");
+
+        assertTrue(context.containsBean("serverWebClient"));
+        assertEquals(1, SERVER.calls("GET", "/users/1"));
+        assertEquals(leases, meterRegistry.get("shareit.server.connection.lease").timer().count());
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.item.dto.ItemDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemRowReaderTest {
+    private static final MediaType CSV = MediaType.parseMediaType(ItemRowReader.TEXT_CSV_VALUE);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readNdjsonSkipsBlankLines() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(MediaType.APPLICATION_NDJSON,
+                "{\"name\":\"Дрель\",\"description\":\"Простая\",\"available\":true,\"requestId\":5}\n" +
+                        "\n" +
+                        "{\"name\":\"Пила\"}\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).getLine());
+        assertEquals(new ItemDto(0, "Дрель", "Простая", true, 5L), rows.get(0).getItem());
+        assertEquals(3, rows.get(1).getLine());
+        assertEquals("Пила", rows.get(1).getItem().getName());
+    }
+
+    @Test
+    void readNdjsonWithInvalidJson() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(MediaType.APPLICATION_NDJSON, "{\"name\":\n{\"name\":\"Пила\"}");
+
+        assertEquals(2, rows.size());
+        assertNull(rows.get(0).getItem());
+        assertTrue(rows.get(0).getError().startsWith("Invalid JSON"));
+        assertEquals("Пила", rows.get(1).getItem().getName());
+    }
+
+    @Test
+    void readCsvWithColumnsInAnyOrder() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV,
+                " RequestId ,available,Description,name\n" +
+                        "7,TRUE,Простая,Дрель\n" +
+                        ",false,Ручная,Пила\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals(new ItemDto(0, "Дрель", "Простая", true, 7L), rows.get(0).getItem());
+        assertEquals(new ItemDto(0, "Пила", "Ручная", false, null), rows.get(1).getItem());
+    }
+
+    @Test
+    void readCsvWithMissingColumns() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV, "name\nДрель\n");
+
+        assertEquals(new ItemDto(0, "Дрель", null, null, null), rows.get(0).getItem());
+    }
+
+    @Test
+    void readCsvWithQuotedCommasAndLineBreaks() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV,
+                "name,description,available\n" +
+                        "\"Дрель, ударная\",\"Первая строка\nвторая строка\",true\n" +
+                        "Пила,Ручная,true\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Дрель, ударная", rows.get(0).getItem().getName());
+        assertEquals("Первая строка\nвторая строка", rows.get(0).getItem().getDescription());
+        assertEquals(4, rows.get(1).getLine());
+        assertEquals("Пила", rows.get(1).getItem().getName());
+    }
+
+    @Test
+    void readCsvWithEscapedQuotes() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV,
+                "name,description,available\n" +
+                        "\"Дрель \"\"Мастер\"\"\",\"\"\"\",true\n");
+
+        assertEquals("Дрель \"Мастер\"", rows.get(0).getItem().getName());
+        assertEquals("\"", rows.get(0).getItem().getDescription());
+    }
+
+    @Test
+    void readCsvWithCrLf() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV,
+                "name,description,available\r\n" +
+                        "Дрель,Простая,true\r\n" +
+                        "\r\n" +
+                        "Пила,Ручная,false\r\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(new ItemDto(0, "Дрель", "Простая", true, null), rows.get(0).getItem());
+        assertEquals(4, rows.get(1).getLine());
+        assertEquals(new ItemDto(0, "Пила", "Ручная", false, null), rows.get(1).getItem());
+    }
+
+    @Test
+    void readCsvWithInvalidAvailable() throws IOException {
+        ItemRowReader.ItemRow row = readAll(CSV, "name,description,available\nДрель,Простая,yes\n").get(0);
+
+        assertNull(row.getItem());
+        assertEquals("available: must be true or false", row.getError());
+    }
+
+    @Test
+    void readCsvWithInvalidRequestId() throws IOException {
+        ItemRowReader.ItemRow row = readAll(CSV, "name,description,available,requestId\nДрель,Простая,true,5a\n")
+                .get(0);
+
+        assertNull(row.getItem());
+        assertEquals("requestId: must be a number", row.getError());
+    }
+
+    @Test
+    void readRowOfMaxLength() throws IOException {
+        String name = "a".repeat(ItemRowReader.MAX_ROW_LENGTH);
+
+        ItemRowReader.ItemRow row = readAll(CSV, "name\n" + name + "\r\n").get(0);
+
+        assertNull(row.getError());
+        assertEquals(name, row.getItem().getName());
+    }
+
+    @Test
+    void readTooLongRowAndContinue() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(CSV,
+                "name,description,available\n" +
+                        "\"" + "a".repeat(ItemRowReader.MAX_ROW_LENGTH) + "\nb\",c,true\n" +
+                        "Пила,Ручная,true\n");
+
+        assertEquals(2, rows.size());
+        assertNull(rows.get(0).getItem());
+        assertTrue(rows.get(0).getError().startsWith("Row is longer than"));
+        assertEquals(4, rows.get(1).getLine());
+        assertEquals("Пила", rows.get(1).getItem().getName());
+    }
+
+    @Test
+    void readRowOfSeparatorsIsLimitedToo() throws IOException {
+        int separators = 10 * ItemRowReader.MAX_ROW_LENGTH;
+        InputStream body = new SequenceInputStream(
+                new ByteArrayInputStream("name\n".getBytes(StandardCharsets.UTF_8)),
+                new SequenceInputStream(new RepeatingInputStream(',', separators),
+                        new ByteArrayInputStream("\nПила\n".getBytes(StandardCharsets.UTF_8))));
+
+        List<ItemRowReader.ItemRow> rows = readAll(CSV, body);
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).getError().startsWith("Row is longer than"));
+        assertEquals("Пила", rows.get(1).getItem().getName());
+    }
+
+    private List<ItemRowReader.ItemRow> readAll(MediaType contentType, String body) throws IOException {
+        return readAll(contentType, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<ItemRowReader.ItemRow> readAll(MediaType contentType, InputStream body) throws IOException {
+        List<ItemRowReader.ItemRow> rows = new ArrayList<>();
+        try (ItemRowReader reader = new ItemRowReader(body, contentType, objectMapper)) {
+            ItemRowReader.ItemRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static class RepeatingInputStream extends InputStream {
+        private final int value;
+        private int remaining;
+
+        RepeatingInputStream(int value, int count) {
+            this.value = value;
+            this.remaining = count;
+        }
+
+        @Override
+        public int read() {
+            return remaining-- > 0 ? value : -1;
+        }
+    }
+}
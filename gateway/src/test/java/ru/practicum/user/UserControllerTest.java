@@ -0,0 +1,78 @@
+package ru.practicum.user;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.StubServer;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-gateway.response-cache.enabled=false")
+class UserControllerTest {
+    private static final StubServer SERVER = StubServer.start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.reset();
+    }
+
+    @Test
+    void streamAllUsersPassesServerStream() {
+        String users = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}\n" +
+                "{\"id\":2,\"name\":\"other\",\"email\":\"other@mail.ru\"}\n";
+        SERVER.on("GET", "/users", new StubServer.Response(200,
+                Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE), users));
+
+        webTestClient.get().uri("/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo(users);
+    }
+
+    @Test
+    void streamAllUsersPassesServerError() {
+        SERVER.on("GET", "/users", StubServer.json(503, "{\"error\":\"Сервер перегружен\"}"));
+
+        webTestClient.get().uri("/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(String.class).isEqualTo("{\"error\":\"Сервер перегружен\"}");
+        assertEquals(1, SERVER.calls("GET", "/users"));
+    }
+
+    @Test
+    void getAllUsersWithInvalidSize() {
+        webTestClient.get().uri("/users?from=0&size=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").exists();
+        assertEquals(0, SERVER.calls("GET", "/users"));
+    }
+}
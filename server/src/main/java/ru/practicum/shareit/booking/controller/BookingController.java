@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -20,6 +21,19 @@ public class BookingController {
         return bookingService.createBooking(bookingRequestDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBookings(@RequestBody List<BookingRequestDto> bookingRequestDtos,
+                                                   @RequestHeader("X-Sharer-User-Id") long userId) {
+        return bookingService.createBookings(bookingRequestDtos, userId);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingBatchResult> confirmBookings(@RequestBody List<Long> bookingIds,
+                                                    @RequestParam Boolean approved,
+                                                    @RequestHeader("X-Sharer-User-Id") long userId) {
+        return bookingService.confirmBookings(bookingIds, approved, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto confirmBooking(@PathVariable long bookingId,
                                              @RequestParam Boolean approved,
@@ -37,7 +51,11 @@ public class BookingController {
     public List<BookingResponseDto> getBookings(@RequestParam String state,
                                                 @RequestHeader("X-Sharer-User-Id") long userId,
                                                 @RequestParam Integer from,
-                                                @RequestParam Integer size) {
+                                                @RequestParam Integer size,
+                                                @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.getBookingsAfter(state, userId, after, size);
+        }
         return bookingService.getBookings(state, userId, from, size);
     }
 
@@ -45,7 +63,11 @@ public class BookingController {
     public List<BookingResponseDto> getOwnerBookings(@RequestParam String state,
                                                      @RequestHeader("X-Sharer-User-Id") long userId,
                                                      @RequestParam Integer from,
-                                                     @RequestParam Integer size) {
+                                                     @RequestParam Integer size,
+                                                     @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.getOwnerBookingsAfter(state, userId, after, size);
+        }
         return bookingService.getOwnerBookings(state, userId, from, size);
     }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Результат одной строки пакетного запроса: бронирование или код и текст ошибки,
+ * которые вернул бы такой же одиночный запрос
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResult {
+    private Long bookingId;
+    private int status;
+    private BookingResponseDto booking;
+    private String error;
+
+    public static BookingBatchResult ok(BookingResponseDto booking) {
+        return new BookingBatchResult(booking.getId(), HttpStatus.OK.value(), booking, null);
+    }
+
+    public static BookingBatchResult failed(Long bookingId, HttpStatus status, String error) {
+        return new BookingBatchResult(bookingId, status.value(), null, error);
+    }
+}
@@ -7,6 +7,7 @@ import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.BookingPointer;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -49,11 +50,11 @@ public class BookingMapper {
         return bookingsDto;
     }
 
-    public BookingForItemDto toBookingForItemDto(Booking booking) {
+    public BookingForItemDto toBookingForItemDto(BookingPointer booking) {
         if (booking == null) return null;
         return new BookingForItemDto(
-                booking.getId(),
-                booking.getBooker().getId()
+                booking.getBookingId(),
+                booking.getBookerId()
         );
     }
 }
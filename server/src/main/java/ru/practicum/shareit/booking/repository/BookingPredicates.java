@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.QUser;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований для QueryDSL. Пустое условие (null) означает отсутствие ограничения.
+ * Вещь и арендатор в условиях - это псевдонимы {@link #ITEM} и {@link #BOOKER}, под которыми
+ * {@link BookingRepositoryImpl} присоединяет их к запросу
+ **/
+@UtilityClass
+public class BookingPredicates {
+    public final QItem ITEM = new QItem("item");
+    public final QUser BOOKER = new QUser("booker");
+    private final QBooking booking = QBooking.booking;
+
+    public BooleanExpression byBooker(long bookerId) {
+        return booking.booker.id.eq(bookerId);
+    }
+
+    public BooleanExpression byOwner(long ownerId) {
+        return ITEM.owner.id.eq(ownerId);
+    }
+
+    public BooleanExpression byState(String state, LocalDateTime now) {
+        switch (state) {
+            case "ALL":
+                return null;
+            case "CURRENT": //текущие - между start и end
+                return booking.start.before(now).and(booking.end.after(now));
+            case "PAST": //завершённые - позже end
+                return booking.end.before(now);
+            case "FUTURE": //будущие - раньше start
+                return booking.start.after(now);
+            case "WAITING": //Ожидают - waiting
+                return booking.status.eq(BookingStatus.WAITING);
+            case "REJECTED": //отклонённые - rejected
+                return booking.status.eq(BookingStatus.REJECTED);
+            default:
+                throw new BookingValidationException(String.format("Unknown state: %s", state));
+        }
+    }
+
+    /**
+     * Бронирования, идущие после курсора при сортировке по убыванию (start, id)
+     **/
+    public BooleanExpression after(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return booking.start.lt(cursor.getPosition())
+                .or(booking.start.eq(cursor.getPosition()).and(booking.id.lt(cursor.getId())));
+    }
+}
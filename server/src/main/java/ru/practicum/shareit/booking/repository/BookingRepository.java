@@ -2,79 +2,68 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
-    Page<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfter(
-            long userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndEndIsBefore(long userId, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartIsAfter(long userId, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStatus(long userId, BookingStatus status, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerId(long userId, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-            long userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerIdAndEndIsBefore(long userId, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerIdAndStartIsAfter(long userId, LocalDateTime start, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerIdAndStatus(long userId, BookingStatus status, Pageable pageable);
-
-    Booking findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(
-            long itemId, long ownerId, LocalDateTime time, BookingStatus status);
-
-    Booking findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(
-            long itemId, long ownerId, LocalDateTime time, BookingStatus status);
-
+public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking>,
+        BookingRepositoryCustom {
     Optional<Booking> findFirstByItemIdAndBookerIdAndStatusAndEndBefore(
             long itemId, long bookerId, BookingStatus status, LocalDateTime end);
 
-    Page<Booking> findAll(Pageable pageable);
+    List<Booking> findAllByItemIdAndStatusInAndEndIsAfter(
+            long itemId, Collection<BookingStatus> statuses, LocalDateTime end);
 
-    @Query(value = "SELECT b1.* " +
-            "FROM bookings b1 " +
-            "JOIN (" +
-            "SELECT item_id, MAX(start_date) as max_start_date " +
-            "FROM BOOKINGS b2 " +
-            "WHERE b2.ID in(" +
-            "SELECT b3.id FROM BOOKINGS b3 " +
-            "JOIN ITEMS i ON I.ID = B3.ITEM_ID " +
-            "WHERE i.OWNER_ID = ? " +
-            "AND b3.STATUS = 'APPROVED' " +
-            "AND b3.START_DATE < ?) " +
-            "GROUP BY ITEM_ID) b2 " +
-            "ON b1.item_id = b2.item_id AND b1.start_date = b2.max_start_date", nativeQuery = true)
-    List<Booking> findLastBookings(
-            Long ownerId, LocalDateTime startDate);
+    /**
+     * Вещь и арендатор нужны маппингу в {@link ru.practicum.shareit.booking.dto.BookingResponseDto},
+     * поэтому загружаются тем же запросом, что и бронирование
+     **/
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    @Query(value = "SELECT b1.* " +
-            "FROM bookings b1 " +
-            "JOIN (" +
-            "SELECT item_id, MIN(start_date) as min_start_date " +
-            "FROM BOOKINGS b2 " +
-            "WHERE b2.ID in(" +
-            "SELECT b3.id FROM BOOKINGS b3 " +
-            "JOIN ITEMS i ON I.ID = B3.ITEM_ID " +
-            "WHERE i.OWNER_ID = ? " +
-            "AND b3.STATUS = 'APPROVED' " +
-            "AND b3.START_DATE >= ?) " +
-            "GROUP BY ITEM_ID) b2 " +
-            "ON b1.item_id = b2.item_id AND b1.start_date = b2.min_start_date", nativeQuery = true)
-    List<Booking> findNextBooking(
-            Long ownerId, LocalDateTime startDate);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Page<Booking> findAll(Pageable pageable);
 
-    Page<Booking> findAllByBookerId(long bookerId, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Последнее начавшееся подтверждённое бронирование каждой из вещей - не больше одного на вещь.
+     * Для каждой вещи берётся первая строка индекса (item_id, start_date DESC, id DESC),
+     * поэтому при одинаковом начале побеждает бронирование с большим id
+     **/
+    @Query(value = "SELECT b.* FROM bookings b " +
+            "WHERE b.id IN (" +
+            "SELECT (SELECT bk.id FROM bookings bk " +
+            "WHERE bk.item_id = i.id " +
+            "AND bk.status = 'APPROVED' " +
+            "AND bk.start_date < :now " +
+            "ORDER BY bk.start_date DESC, bk.id DESC " +
+            "FETCH FIRST 1 ROWS ONLY) " +
+            "FROM items i WHERE i.id IN (:itemIds))", nativeQuery = true)
+    List<Booking> findLastBookings(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Ближайшее ещё не начавшееся подтверждённое бронирование каждой из вещей - не больше одного на вещь.
+     * При одинаковом начале побеждает бронирование с меньшим id
+     **/
+    @Query(value = "SELECT b.* FROM bookings b " +
+            "WHERE b.id IN (" +
+            "SELECT (SELECT bk.id FROM bookings bk " +
+            "WHERE bk.item_id = i.id " +
+            "AND bk.status = 'APPROVED' " +
+            "AND bk.start_date >= :now " +
+            "ORDER BY bk.start_date, bk.id " +
+            "FETCH FIRST 1 ROWS ONLY) " +
+            "FROM items i WHERE i.id IN (:itemIds))", nativeQuery = true)
+    List<Booking> findNextBookings(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.Predicate;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Выборка бронирований по условиям из {@link BookingPredicates} одним SQL-запросом:
+ * вещь и арендатор присоединяются в том же запросе и сразу проецируются в {@link BookingResponseDto}.
+ * Списки отсортированы по убыванию (start, id) и не подсчитывают общее количество
+ **/
+public interface BookingRepositoryCustom {
+    List<BookingResponseDto> findBookings(Predicate predicate, long offset, int size);
+
+    List<BookingResponseDto> findBookingsAfter(Predicate predicate, KeysetCursor after, int size);
+
+    /**
+     * Меняет статус бронирований одним UPDATE. Бронирования отсоединяются от контекста,
+     * чтобы новый статус, выставленный им в памяти после вызова, не породил ещё по одному UPDATE на каждое
+     **/
+    void updateStatus(Collection<Booking> bookings, BookingStatus status);
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.QUser;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingResponseDto> findBookings(Predicate predicate, long offset, int size) {
+        return selectBookings(predicate)
+                .offset(offset)
+                .limit(size)
+                .fetch();
+    }
+
+    @Override
+    public List<BookingResponseDto> findBookingsAfter(Predicate predicate, KeysetCursor after, int size) {
+        return selectBookings(predicate)
+                .where(BookingPredicates.after(after))
+                .limit(size)
+                .fetch();
+    }
+
+    @Override
+    public void updateStatus(Collection<Booking> bookings, BookingStatus status) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        bookings.forEach(entityManager::detach);
+        new JPAUpdateClause(entityManager, QBooking.booking)
+                .set(QBooking.booking.status, status)
+                .where(QBooking.booking.id.in(bookings.stream()
+                        .map(Booking::getId)
+                        .collect(Collectors.toList())))
+                .execute();
+    }
+
+    private JPAQuery<BookingResponseDto> selectBookings(Predicate predicate) {
+        QBooking booking = QBooking.booking;
+        QItem item = BookingPredicates.ITEM;
+        QUser booker = BookingPredicates.BOOKER;
+        return new JPAQuery<>(entityManager)
+                .select(Projections.constructor(BookingResponseDto.class,
+                        booking.id,
+                        booking.start,
+                        booking.end,
+                        Projections.constructor(ItemDto.class,
+                                item.id, item.name, item.description, item.available, item.request),
+                        Projections.constructor(UserDto.class,
+                                booker.id, booker.name, booker.email),
+                        booking.status))
+                .from(booking)
+                .join(booking.item, item)
+                .join(booking.booker, booker)
+                .where(predicate)
+                .orderBy(booking.start.desc(), booking.id.desc());
+    }
+}
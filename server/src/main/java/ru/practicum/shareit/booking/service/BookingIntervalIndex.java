@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс занятых интервалов [start, end) по каждой вещи.
+ * Хранит ожидающие и подтверждённые бронирования, которые ещё не закончились.
+ * Интервалы одной вещи не пересекаются, поэтому для проверки достаточно одного соседа в отсортированной карте.
+ **/
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final int LOCK_STRIPES = 64;
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableMap<LocalDateTime, BookedInterval>> intervals = new ConcurrentHashMap<>();
+    private final Lock[] locks = createLocks();
+
+    /**
+     * Выполняет действие под блокировкой вещи. Бронирования разных вещей, как правило, попадают в разные блокировки
+     **/
+    public <T> T lockItem(long itemId, Supplier<T> action) {
+        Lock lock = locks[Math.floorMod(Long.hashCode(itemId), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, BookedInterval> previous = getIntervals(itemId).lowerEntry(end);
+        return previous == null || !previous.getValue().getEnd().isAfter(start);
+    }
+
+    public void add(Booking booking) {
+        long itemId = booking.getItem().getId();
+        NavigableMap<LocalDateTime, BookedInterval> itemIntervals = getIntervals(itemId);
+        removeFinished(itemIntervals);
+        itemIntervals.put(booking.getStart(), new BookedInterval(booking.getId(), booking.getEnd()));
+        afterRollback(() -> remove(itemId, booking.getId(), booking.getStart()));
+    }
+
+    public void remove(Booking booking) {
+        long itemId = booking.getItem().getId();
+        if (remove(itemId, booking.getId(), booking.getStart())) {
+            afterRollback(() -> getIntervals(itemId)
+                    .put(booking.getStart(), new BookedInterval(booking.getId(), booking.getEnd())));
+        }
+    }
+
+    private boolean remove(long itemId, Long bookingId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, BookedInterval> itemIntervals = intervals.get(itemId);
+        if (itemIntervals == null) {
+            return false;
+        }
+        BookedInterval interval = itemIntervals.get(start);
+        return interval != null && interval.getBookingId().equals(bookingId) && itemIntervals.remove(start, interval);
+    }
+
+    private NavigableMap<LocalDateTime, BookedInterval> getIntervals(long itemId) {
+        return intervals.computeIfAbsent(itemId, this::load);
+    }
+
+    private NavigableMap<LocalDateTime, BookedInterval> load(long itemId) {
+        NavigableMap<LocalDateTime, BookedInterval> itemIntervals = new ConcurrentSkipListMap<>();
+        for (Booking booking : bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(
+                itemId, ACTIVE_STATUSES, LocalDateTime.now())) {
+            itemIntervals.put(booking.getStart(), new BookedInterval(booking.getId(), booking.getEnd()));
+        }
+        return itemIntervals;
+    }
+
+    /**
+     * Интервалы не пересекаются, поэтому отсортированы и по окончанию - закончившиеся всегда лежат в начале карты
+     **/
+    private void removeFinished(NavigableMap<LocalDateTime, BookedInterval> itemIntervals) {
+        LocalDateTime now = LocalDateTime.now();
+        Map.Entry<LocalDateTime, BookedInterval> first = itemIntervals.firstEntry();
+        while (first != null && !first.getValue().getEnd().isAfter(now)) {
+            itemIntervals.remove(first.getKey(), first.getValue());
+            first = itemIntervals.firstEntry();
+        }
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static Lock[] createLocks() {
+        Lock[] locks = new Lock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class BookedInterval {
+        private final Long bookingId;
+        private final LocalDateTime end;
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingService {
@@ -10,9 +12,17 @@ public interface BookingService {
 
     BookingResponseDto confirmBooking(Long bookingId, boolean approved, long userId);
 
+    List<BookingBatchResult> createBookings(List<BookingRequestDto> bookingRequestDtos, long userId);
+
+    List<BookingBatchResult> confirmBookings(Collection<Long> bookingIds, boolean approved, long userId);
+
     BookingResponseDto getBooking(Long bookingId, long userId);
 
     List<BookingResponseDto> getBookings(String state, long userId, int from, int size);
 
     List<BookingResponseDto> getOwnerBookings(String state, long userId, int from, int size);
+
+    List<BookingResponseDto> getBookingsAfter(String state, long userId, String after, int size);
+
+    List<BookingResponseDto> getOwnerBookingsAfter(String state, long userId, String after, int size);
 }
@@ -1,12 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
+import com.querydsl.core.types.ExpressionUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
@@ -16,16 +15,30 @@ import ru.practicum.shareit.booking.exception.UserNotOwnerBooking;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingPredicates;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,12 +46,17 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointers itemBookingPointers;
+    private final UserExistenceCache userExistenceCache;
+    private final ChangeFeed changeFeed;
 
     @Transactional
     @Override
     public BookingResponseDto createBooking(BookingRequestDto bookingRequestDto, Long bookerId) {
-        // Проверка на существования пользователя
-        User user = checkUser(bookerId);
+        // Проверка на существования пользователя. Арендатор нужен в ответе целиком, поэтому читается из базы
+        User user = userRepository.findById(bookerId).orElseThrow(() -> new UserNotFoundException(
+                String.format("Пользователя с id = %s не существует", bookerId)));
 
         //Проверка на существование предмета
         Item item = itemRepository.findById(bookingRequestDto.getItemId()).orElseThrow(() -> new ItemNotFoundException(
@@ -56,13 +74,16 @@ public class BookingServiceImpl implements BookingService {
 
         Booking booking = BookingMapper.toBooking(bookingRequestDto, item, user);
 
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        return BookingMapper.toBookingResponseDto(saveWithReservation(booking));
     }
 
     @Transactional
     @Override
     public BookingResponseDto confirmBooking(Long bookingId, boolean approved, long userId) {
         checkUser(userId);
+        //Вещь блокируется до чтения бронирования: её ссылки пересчитываются по актуальному состоянию,
+        //а подтверждения бронирований одной вещи выполняются по очереди
+        itemRepository.lockAllByBookingIdIn(List.of(bookingId));
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new BookingNotFoundException(
                 String.format("Бронирования с id = %s не существует.", bookingId)));
 
@@ -75,10 +96,120 @@ public class BookingServiceImpl implements BookingService {
                     String.format("Пользователь с id = %s не является владельцем вещи, которую бронируют.", userId));
         }
 
+        if (approved && booking.getStatus().equals(BookingStatus.REJECTED)) {
+            //Отклонённое бронирование не занимает интервал, его нужно заново проверить на пересечения
+            booking.setStatus(BookingStatus.APPROVED);
+            Booking savedBooking = saveWithReservation(booking);
+            itemBookingPointers.onApproved(savedBooking, LocalDateTime.now());
+            return BookingMapper.toBookingResponseDto(savedBooking);
+        }
+
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        if (approved) {
+            itemBookingPointers.onApproved(booking, LocalDateTime.now());
+        } else {
+            bookingIntervalIndex.remove(booking);
+            itemBookingPointers.onRejected(booking, LocalDateTime.now());
+        }
+        changeFeed.publish(ChangeType.BOOKING, bookingId);
         return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
     }
 
+    /**
+     * Создаёт бронирования одной транзакцией: арендатор и вещи читаются один раз на весь список,
+     * вставки уходят в базу пакетами. Строка с ошибкой не отменяет остальные - ошибка попадает в её результат
+     **/
+    @Transactional
+    @Override
+    public List<BookingBatchResult> createBookings(List<BookingRequestDto> bookingRequestDtos, long bookerId) {
+        User user = userRepository.findById(bookerId).orElseThrow(() -> new UserNotFoundException(
+                String.format("Пользователя с id = %s не существует", bookerId)));
+
+        Map<Long, Item> items = itemRepository.findAllById(bookingRequestDtos.stream()
+                        .map(BookingRequestDto::getItemId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BookingBatchResult> results = new ArrayList<>(bookingRequestDtos.size());
+        for (BookingRequestDto bookingRequestDto : bookingRequestDtos) {
+            Item item = items.get(bookingRequestDto.getItemId());
+            if (item == null) {
+                results.add(BookingBatchResult.failed(null, HttpStatus.NOT_FOUND,
+                        String.format("Предмета с id = %s не существует", bookingRequestDto.getItemId())));
+            } else if (!item.getAvailable()) {
+                results.add(BookingBatchResult.failed(null, HttpStatus.BAD_REQUEST,
+                        "Статус данной вещи недоступен."));
+            } else if (item.getOwner().getId().equals(bookerId)) {
+                results.add(BookingBatchResult.failed(null, HttpStatus.NOT_FOUND,
+                        "Пользователь не может арендовать свою же вещь."));
+            } else {
+                try {
+                    Booking booking = saveWithReservation(BookingMapper.toBooking(bookingRequestDto, item, user));
+                    results.add(BookingBatchResult.ok(BookingMapper.toBookingResponseDto(booking)));
+                } catch (ItemUnavailableException e) {
+                    results.add(BookingBatchResult.failed(null, HttpStatus.BAD_REQUEST, e.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Подтверждает или отклоняет бронирования одной транзакцией: вещи блокируются одним запросом,
+     * бронирования читаются одним запросом, статус меняется одним UPDATE на все прошедшие проверки.
+     * Решение принимается только по ожидающим бронированиям: подтверждённое или отклонённое получает ту же ошибку,
+     * что и одиночный запрос по уже подтверждённому, и интервал отклонённого заново не занимается.
+     * Повторные id учитываются один раз
+     **/
+    @Transactional
+    @Override
+    public List<BookingBatchResult> confirmBookings(Collection<Long> bookingIds, boolean approved, long userId) {
+        checkUser(userId);
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        itemRepository.lockAllByBookingIdIn(ids);
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, BookingBatchResult> failures = new HashMap<>();
+        List<Booking> confirmed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                failures.put(id, BookingBatchResult.failed(id, HttpStatus.NOT_FOUND,
+                        String.format("Бронирования с id = %s не существует.", id)));
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                failures.put(id, BookingBatchResult.failed(id, HttpStatus.NOT_FOUND, String.format(
+                        "Пользователь с id = %s не является владельцем вещи, которую бронируют.", userId)));
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                failures.put(id, BookingBatchResult.failed(id, HttpStatus.BAD_REQUEST, "Вещь уже забронирована."));
+            } else {
+                confirmed.add(booking);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        bookingRepository.updateStatus(confirmed, status);
+        confirmed.forEach(booking -> {
+            booking.setStatus(status);
+            changeFeed.publish(ChangeType.BOOKING, booking.getId());
+        });
+        if (approved) {
+            confirmed.forEach(booking -> itemBookingPointers.onApproved(booking, now));
+        } else {
+            confirmed.forEach(bookingIntervalIndex::remove);
+            itemBookingPointers.onRejected(confirmed, now);
+        }
+
+        List<BookingBatchResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(failures.containsKey(id)
+                    ? failures.get(id)
+                    : BookingBatchResult.ok(BookingMapper.toBookingResponseDto(bookings.get(id))));
+        }
+        return results;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public BookingResponseDto getBooking(Long bookingId, long userId) {
@@ -100,39 +231,12 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingResponseDto> getBookings(String state, long userId, int from, int size) {
         checkUser(userId);
-        Page<Booking> bookingsPage;
-        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("start").descending());
-
-        switch (state) {
-            case "ALL":
-                bookingsPage = bookingRepository.findAllByBookerId(userId, pageable);
-                break;
-            case "CURRENT": //текущие - между start и end
-                bookingsPage = bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(
-                        userId, LocalDateTime.now(), LocalDateTime.now(), pageable);
-                break;
-            case "PAST": //завершённые - позже end
-                bookingsPage = bookingRepository.findAllByBookerIdAndEndIsBefore(
-                        userId, LocalDateTime.now(), pageable);
-                break;
-            case "FUTURE": //будущие - раньше start
-                bookingsPage = bookingRepository.findAllByBookerIdAndStartIsAfter(
-                        userId, LocalDateTime.now(), pageable);
-                break;
-            case "WAITING": //Ожидают - waiting
-                bookingsPage = bookingRepository.findAllByBookerIdAndStatus(
-                        userId, BookingStatus.WAITING, pageable);
-                break;
-            case "REJECTED": //отклонённые - rejected
-                bookingsPage = bookingRepository.findAllByBookerIdAndStatus(
-                        userId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new BookingValidationException(String.format("Unknown state: %s", state));
-        }
-
-        List<Booking> bookings = bookingsPage.getContent();
-        return BookingMapper.toBookingResponseDto(bookings);
+        return bookingRepository.findBookings(
+                ExpressionUtils.allOf(
+                        BookingPredicates.byBooker(userId),
+                        BookingPredicates.byState(state, LocalDateTime.now())),
+                toOffset(from, size),
+                size);
     }
 
     /**
@@ -142,43 +246,71 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingResponseDto> getOwnerBookings(String state, long userId, int from, int size) {
         checkUser(userId);
-        Page<Booking> bookingsPage;
-        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("start").descending());
-
-        switch (state) {
-            case "ALL":
-                bookingsPage = bookingRepository.findAllByItemOwnerId(userId, pageable);
-                break;
-            case "CURRENT": //текущие - между start и end
-                bookingsPage = bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-                        userId, LocalDateTime.now(), LocalDateTime.now(), pageable);
-                break;
-            case "PAST": //завершённые - позже end
-                bookingsPage = bookingRepository.findAllByItemOwnerIdAndEndIsBefore(
-                        userId, LocalDateTime.now(), pageable);
-                break;
-            case "FUTURE": //будущие - раньше start
-                bookingsPage = bookingRepository.findAllByItemOwnerIdAndStartIsAfter(
-                        userId, LocalDateTime.now(), pageable);
-                break;
-            case "WAITING": //Ожидают - waiting
-                bookingsPage = bookingRepository.findAllByItemOwnerIdAndStatus(
-                        userId, BookingStatus.WAITING, pageable);
-                break;
-            case "REJECTED": //отклонённые - rejected
-                bookingsPage = bookingRepository.findAllByItemOwnerIdAndStatus(
-                        userId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new BookingValidationException(String.format("Unknown state: %s", state));
-        }
+        return bookingRepository.findBookings(
+                ExpressionUtils.allOf(
+                        BookingPredicates.byOwner(userId),
+                        BookingPredicates.byState(state, LocalDateTime.now())),
+                toOffset(from, size),
+                size);
+    }
 
-        List<Booking> bookings = bookingsPage.getContent();
-        return BookingMapper.toBookingResponseDto(bookings);
+    /**
+     * Выводит страницу броней пользователя, который их брал, после курсора (start, id) - без OFFSET и COUNT
+     **/
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getBookingsAfter(String state, long userId, String after, int size) {
+        checkUser(userId);
+        return bookingRepository.findBookingsAfter(
+                ExpressionUtils.allOf(
+                        BookingPredicates.byBooker(userId),
+                        BookingPredicates.byState(state, LocalDateTime.now())),
+                KeysetCursor.parse(after),
+                size);
     }
 
-    private User checkUser(long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
-                String.format("Пользователя с id = %s не существует", userId)));
+    /**
+     * Выводит страницу бронирований вещей владельца после курсора (start, id) - без OFFSET и COUNT
+     **/
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getOwnerBookingsAfter(String state, long userId, String after, int size) {
+        checkUser(userId);
+        return bookingRepository.findBookingsAfter(
+                ExpressionUtils.allOf(
+                        BookingPredicates.byOwner(userId),
+                        BookingPredicates.byState(state, LocalDateTime.now())),
+                KeysetCursor.parse(after),
+                size);
+    }
+
+    /**
+     * Сохраняет бронирование, если его интервал не пересекается с ожидающими и подтверждёнными бронированиями вещи.
+     * Одновременные бронирования одной вещи выполняются по очереди
+     **/
+    private Booking saveWithReservation(Booking booking) {
+        long itemId = booking.getItem().getId();
+        return bookingIntervalIndex.lockItem(itemId, () -> {
+            if (!bookingIntervalIndex.isFree(itemId, booking.getStart(), booking.getEnd())) {
+                throw new ItemUnavailableException("Вещь уже забронирована на выбранные даты.");
+            }
+            Booking savedBooking = bookingRepository.save(booking);
+            bookingIntervalIndex.add(savedBooking);
+            changeFeed.publish(ChangeType.BOOKING, savedBooking.getId());
+            return savedBooking;
+        });
+    }
+
+    /**
+     * Смещение первой записи страницы с номером from / size
+     **/
+    private long toOffset(int from, int size) {
+        return from > 0 ? (long) (from / size) * size : 0;
+    }
+
+    private void checkUser(long userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователя с id = %s не существует", userId));
+        }
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.change.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.change.dto.ChangePage;
+import ru.practicum.shareit.change.service.ChangeFeed;
+
+import java.time.Duration;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/changes")
+public class ChangeController {
+    private static final long MAX_TIMEOUT_MILLIS = 30000;
+
+    private final ChangeFeed changeFeed;
+
+    /**
+     * События после номера after. Если их нет, запрос ждёт новые до timeout миллисекунд, но не дольше 30 секунд
+     **/
+    @GetMapping
+    public ChangePage getChanges(@RequestParam(required = false) Long after,
+                                 @RequestParam(defaultValue = "1000") int limit,
+                                 @RequestParam(defaultValue = "0") long timeout) {
+        return changeFeed.getChanges(after, Math.max(limit, 1),
+                Duration.ofMillis(Math.min(Math.max(timeout, 0), MAX_TIMEOUT_MILLIS)));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.change.model.ChangeType;
+
+/**
+ * Событие ленты изменений: номер, тип и id изменённой сущности.
+ * Пустой id означает, что могли измениться любые сущности этого типа
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeDto {
+    private long seq;
+    private ChangeType type;
+    private Long id;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ответ ленты изменений. epoch меняется при перезапуске сервера, last - номер, с которого читать дальше.
+ * reset означает, что часть событий потеряна и всё, что клиент построил по ленте, нужно сбросить
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePage {
+    private String epoch;
+    private long last;
+    private boolean reset;
+    private List<ChangeDto> changes;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.change.model;
+
+/**
+ * Сущности, об изменении которых сообщает лента изменений
+ **/
+public enum ChangeType {
+    USER,
+    ITEM,
+    BOOKING,
+    REQUEST
+}
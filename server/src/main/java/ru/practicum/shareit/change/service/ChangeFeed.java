@@ -0,0 +1,148 @@
+package ru.practicum.shareit.change.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.dto.ChangePage;
+import ru.practicum.shareit.change.model.ChangeType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лента изменений для кэша ответов шлюза. После фиксации транзакции, изменившей пользователя, вещь,
+ * бронирование или запрос, в ленту добавляется событие с очередным номером. Хранятся последние capacity событий.
+ * Номер последнего события запроса возвращается в заголовке CHANGE_SEQ_HEADER, чтобы шлюз не отдавал из кэша
+ * ответы, которые старше только что выполненной через него записи
+ **/
+@Slf4j
+@Component
+public class ChangeFeed {
+    public static final String CHANGE_SEQ_HEADER = "X-Shareit-Change-Seq";
+    public static final String MAX_AGE_HEADER = "X-Shareit-Max-Age";
+
+    private final int capacity;
+    private final String epoch = UUID.randomUUID().toString();
+    private final Deque<ChangeDto> changes = new ArrayDeque<>();
+    private long lastSeq;
+
+    public ChangeFeed(@Value("${shareit.change-feed.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void publish(ChangeType type, Long id) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        afterCommit(() -> {
+            long seq = append(type, id);
+            HttpServletResponse response = currentResponse(requestAttributes);
+            if (response != null) {
+                response.setHeader(CHANGE_SEQ_HEADER, String.valueOf(seq));
+            }
+        });
+    }
+
+    /**
+     * Ответ текущего запроса станет неверным в момент at без записи и события в ленте, например когда начнётся
+     * следующее бронирование вещи. В заголовке MAX_AGE_HEADER шлюз получает, сколько миллисекунд ответ ещё верен,
+     * при нескольких вызовах - наименьшее из значений
+     **/
+    public void expireAt(LocalDateTime at) {
+        HttpServletResponse response = currentResponse(RequestContextHolder.getRequestAttributes());
+        if (response == null) {
+            return;
+        }
+        long maxAge = Math.max(0, Duration.between(LocalDateTime.now(), at).toMillis());
+        String current = response.getHeader(MAX_AGE_HEADER);
+        if (current == null || Long.parseLong(current) > maxAge) {
+            response.setHeader(MAX_AGE_HEADER, String.valueOf(maxAge));
+        }
+    }
+
+    /**
+     * События с номером больше after, не больше limit штук. Если их ещё нет, ждёт новые до timeout.
+     * Без after возвращает только текущий номер - с него клиент начинает чтение
+     **/
+    public synchronized ChangePage getChanges(Long after, int limit, Duration timeout) {
+        if (after == null) {
+            return new ChangePage(epoch, lastSeq, false, List.of());
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (after == lastSeq) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (after > lastSeq || after < firstSeq() - 1) {
+            log.info("Лента изменений не содержит событий после {}, клиент сбрасывает состояние.", after);
+            return new ChangePage(epoch, lastSeq, true, List.of());
+        }
+
+        List<ChangeDto> page = new ArrayList<>(Math.min(limit, (int) (lastSeq - after)));
+        for (ChangeDto change : changes) {
+            if (change.getSeq() > after) {
+                page.add(change);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        long last = page.isEmpty() ? after : page.get(page.size() - 1).getSeq();
+        return new ChangePage(epoch, last, false, page);
+    }
+
+    private synchronized long append(ChangeType type, Long id) {
+        changes.addLast(new ChangeDto(++lastSeq, type, id));
+        if (changes.size() > capacity) {
+            changes.removeFirst();
+        }
+        notifyAll();
+        return lastSeq;
+    }
+
+    private long firstSeq() {
+        return changes.isEmpty() ? lastSeq + 1 : changes.getFirst().getSeq();
+    }
+
+    private static HttpServletResponse currentResponse(RequestAttributes requestAttributes) {
+        if (requestAttributes instanceof ServletRequestAttributes) {
+            HttpServletResponse response = ((ServletRequestAttributes) requestAttributes).getResponse();
+            if (response != null && !response.isCommitted()) {
+                return response;
+            }
+        }
+        return null;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,12 +1,17 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,6 +19,7 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
 
     @GetMapping
     public List<ItemFullDto> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -41,6 +47,15 @@ public class ItemController {
         return itemService.addItem(itemDto, userId);
     }
 
+    /**
+     * Импорт вещей из NDJSON: по одной строке ItemImportRow на вещь
+     **/
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportReport importItems(InputStream rows,
+                                        @RequestHeader("X-Sharer-User-Id") long userId) throws IOException {
+        return itemImporter.importItems(rows, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
                               @PathVariable long itemId,
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог импорта: сколько вещей сохранено, сколько строк отклонено и ошибки первых из них
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportReport {
+    private long imported;
+    private long failed;
+    private List<ItemImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка импорта вещей - поля вещи и номер строки исходного файла для отчёта об ошибках
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportRow {
+    private long line;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long requestId;
+}
@@ -30,7 +30,9 @@ public class ItemMapper {
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
                 null,
-                itemDto.getRequestId()
+                itemDto.getRequestId(),
+                null,
+                null
         );
     }
 
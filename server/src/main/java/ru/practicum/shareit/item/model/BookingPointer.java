@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Ссылка вещи на подтверждённое бронирование: хранит ровно то, что нужно для вывода вещи,
+ * и начало бронирования, чтобы сравнивать его с новыми бронированиями без обращения к таблице bookings
+ **/
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@ToString
+public class BookingPointer {
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "booker_id")
+    private Long bookerId;
+
+    @Column(name = "booking_start")
+    private LocalDateTime start;
+
+    public static BookingPointer of(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingPointer(booking.getId(), booking.getBooker().getId(), booking.getStart());
+    }
+}
@@ -1,11 +1,21 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
 
+/**
+ * UPDATE вещи содержит только изменённые столбцы: правка вещи и пересчёт ссылок на бронирования
+ * в параллельных транзакциях не затирают изменения друг друга
+ **/
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Table(name = "items")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,7 +25,8 @@ import javax.persistence.*;
 @Builder
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -32,6 +43,26 @@ public class Item {
     @Column(name = "request_id")
     private Long request;
 
+    /**
+     * Последнее начавшееся подтверждённое бронирование вещи
+     **/
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_booking_start"))})
+    private BookingPointer lastBooking;
+
+    /**
+     * Ближайшее ещё не начавшееся подтверждённое бронирование вещи
+     **/
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_booking_start"))})
+    private BookingPointer nextBooking;
+
     @Override
     public int hashCode() {
         return getClass().hashCode();
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.item.repositrory;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemId(long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemIdIn(List<Long> itemsId);
 }
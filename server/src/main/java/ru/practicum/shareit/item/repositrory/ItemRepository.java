@@ -3,11 +3,20 @@ package ru.practicum.shareit.item.repositrory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface ItemRepository extends JpaRepository<Item, Long> {
     Page<Item> findAllByOwnerId(long userId, Pageable pageable);
 
@@ -17,5 +26,35 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "and i.available = true")
     Page<Item> search(String text, Pageable pageable);
 
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.search_vector @@ to_tsquery('russian', :query) " +
+            "AND i.available = true " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('russian', :query)) DESC, i.id " +
+            "LIMIT :size OFFSET :offset", nativeQuery = true)
+    List<Item> searchFullText(@Param("query") String query, @Param("offset") int offset, @Param("size") int size);
+
+    List<Item> findAllByAvailableTrueAndIdGreaterThanOrderById(long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Item> findAllByRequest(Long id);
+
+    List<Item> findAllByRequestIn(Collection<Long> ids);
+
+    @Query("select i.id from Item i where i.nextBooking.start < ?1 and i.id > ?2 order by i.id")
+    List<Long> findIdsByNextBookingStartBefore(LocalDateTime time, long afterId, Pageable pageable);
+
+    /**
+     * Вещи, строки которых заблокированы до конца транзакции, в порядке id - так параллельные транзакции
+     * не блокируют одни и те же вещи в разном порядке. Ссылки на бронирования пишутся только под этой блокировкой
+     **/
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in ?1 order by i.id")
+    List<Item> lockAllByIdIn(Collection<Long> ids);
+
+    /**
+     * То же для вещей бронирований
+     **/
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in (select b.item.id from Booking b where b.id in ?1) order by i.id")
+    List<Item> lockAllByBookingIdIn(Collection<Long> bookingIds);
 }
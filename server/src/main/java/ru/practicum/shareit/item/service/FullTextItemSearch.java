@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск Postgres по колонке items.search_vector с GIN-индексом (schema-postgresql-full-text.sql).
+ * Каждое слово запроса ищется как префикс слова вещи, результаты упорядочены по релевантности
+ **/
+@Component
+@ConditionalOnProperty(name = "shareit.item-search", havingValue = "full-text")
+@RequiredArgsConstructor
+public class FullTextItemSearch implements ItemSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.searchFullText(query, from > 0 ? (from / size) * size : 0, size);
+    }
+
+    /**
+     * Из "Дрель  аккумуляторная!" получается "Дрель:* & аккумуляторная:*".
+     * Служебные символы tsquery отбрасываются вместе с остальными разделителями
+     **/
+    static String toTsQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
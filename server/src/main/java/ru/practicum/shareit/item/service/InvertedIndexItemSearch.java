@@ -0,0 +1,228 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс доступных вещей в памяти: слово названия или описания -> отсортированные id вещей.
+ * Строится при старте и обновляется после фиксации транзакций addItem/updateItem.
+ * Каждое слово запроса ищется как префикс слова вещи, из базы загружается только страница результата
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item-search", havingValue = "inverted-index")
+@RequiredArgsConstructor
+public class InvertedIndexItemSearch implements ItemSearch {
+    private static final int LOAD_BATCH_SIZE = 1_000;
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ItemRepository itemRepository;
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, String[]> itemTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void build() {
+        long lastId = 0;
+        List<Item> items;
+        do {
+            items = itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(lastId,
+                    PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Item item : items) {
+                put(item.getId(), terms(item));
+                lastId = item.getId();
+            }
+        } while (items.size() == LOAD_BATCH_SIZE);
+        log.info("Индекс поиска вещей построен: {} вещей, {} слов", itemTerms.size(), postings.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        String[] words = tokens(text);
+        if (words.length == 0) {
+            return List.of();
+        }
+
+        long[] found;
+        lock.readLock().lock();
+        try {
+            found = matching(words[0]);
+            for (int i = 1; i < words.length && found.length > 0; i++) {
+                found = intersect(found, matching(words[i]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int offset = from > 0 ? (from / size) * size : 0;
+        if (offset >= found.length) {
+            return List.of();
+        }
+        List<Long> pageIds = Arrays.stream(found, offset, Math.min(offset + size, found.length))
+                .boxed()
+                .collect(Collectors.toList());
+        return itemRepository.findAllById(pageIds).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Изменения применяются после фиксации транзакции, чтобы откаченные правки не попали в индекс
+     **/
+    @Override
+    public void indexItem(Item item) {
+        long itemId = item.getId();
+        String[] terms = Boolean.TRUE.equals(item.getAvailable()) ? terms(item) : NO_TERMS;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(itemId, terms);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(itemId, terms);
+            }
+        });
+    }
+
+    private void put(long itemId, String[] terms) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = itemTerms.remove(itemId);
+            if (previous != null) {
+                for (String term : previous) {
+                    Postings ids = postings.get(term);
+                    ids.remove(itemId);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            if (terms.length == 0) {
+                return;
+            }
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new Postings()).add(itemId);
+            }
+            itemTerms.put(itemId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Объединение списков всех слов индекса, начинающихся с word: списки копируются в один массив,
+     * который сортируется и очищается от повторов один раз, а не сливается попарно с каждым следующим списком
+     **/
+    private long[] matching(String word) {
+        Collection<Postings> lists = postings.subMap(word, true, word + Character.MAX_VALUE, false).values();
+        int total = 0;
+        for (Postings ids : lists) {
+            total += ids.size;
+        }
+        long[] result = new long[total];
+        int size = 0;
+        for (Postings ids : lists) {
+            System.arraycopy(ids.ids, 0, result, size, ids.size);
+            size += ids.size;
+        }
+        return lists.size() == 1 ? result : sortedDistinct(result);
+    }
+
+    private static String[] terms(Item item) {
+        return tokens(Objects.toString(item.getName(), "") + " " + Objects.toString(item.getDescription(), ""));
+    }
+
+    static String[] tokens(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    static long[] sortedDistinct(long[] ids) {
+        Arrays.sort(ids);
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (size == 0 || ids[i] != ids[size - 1]) {
+                ids[size++] = ids[i];
+            }
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (right[j] < left[i]) {
+                j++;
+            } else {
+                result[size++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Отсортированный список id без упаковки в Long. Новые вещи получают большие id, поэтому вставка почти всегда в конец
+     **/
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
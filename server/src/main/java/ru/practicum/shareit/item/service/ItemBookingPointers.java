@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
+import ru.practicum.shareit.item.model.BookingPointer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает ссылки вещи на последнее и следующее подтверждённые бронирования.
+ * Последнее - с наибольшим началом до текущего момента, следующее - с наименьшим началом не раньше него.
+ * Со временем следующее бронирование начинается и становится последним: такие вещи периодически
+ * пересчитывает {@link ItemBookingRollForward}, а до пересчёта они распознаются по {@link #isStale}
+ * и пересчитываются при чтении.
+ * Каждая вещь с изменившимися ссылками попадает в ленту изменений
+ **/
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointers {
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Только что подтверждённое бронирование заменяет последнее или следующее, если оно ближе к текущему моменту
+     **/
+    public void onApproved(Booking booking, LocalDateTime now) {
+        Item item = booking.getItem();
+        if (booking.getStart().isBefore(now)) {
+            if (item.getLastBooking() == null || booking.getStart().isAfter(item.getLastBooking().getStart())) {
+                item.setLastBooking(BookingPointer.of(booking));
+                changeFeed.publish(ChangeType.ITEM, item.getId());
+            }
+        } else if (item.getNextBooking() == null || booking.getStart().isBefore(item.getNextBooking().getStart())) {
+            item.setNextBooking(BookingPointer.of(booking));
+            changeFeed.publish(ChangeType.ITEM, item.getId());
+        }
+    }
+
+    /**
+     * Ожидающие и отклонённые бронирования на ссылки не влияют,
+     * пересчёт нужен, только если вещь ссылается на отклонённое бронирование
+     **/
+    public void onRejected(Booking booking, LocalDateTime now) {
+        Item item = booking.getItem();
+        if (pointsTo(item.getLastBooking(), booking) || pointsTo(item.getNextBooking(), booking)) {
+            refresh(item, now);
+        }
+    }
+
+    /**
+     * То же для нескольких отклонённых бронирований: все затронутые вещи пересчитываются одним {@link #refresh}
+     **/
+    public void onRejected(Collection<Booking> bookings, LocalDateTime now) {
+        Map<Long, Item> items = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            Item item = booking.getItem();
+            if (pointsTo(item.getLastBooking(), booking) || pointsTo(item.getNextBooking(), booking)) {
+                items.put(item.getId(), item);
+            }
+        }
+        refresh(items.values(), now);
+    }
+
+    /**
+     * Следующее бронирование уже началось, значит обе ссылки устарели
+     **/
+    public boolean isStale(Item item, LocalDateTime now) {
+        return item.getNextBooking() != null && item.getNextBooking().getStart().isBefore(now);
+    }
+
+    /**
+     * Пересчитывает только устаревшие вещи из переданных - например, со страницы выдачи
+     **/
+    public void refreshStale(Collection<Item> items, LocalDateTime now) {
+        refresh(items.stream()
+                .filter(item -> isStale(item, now))
+                .collect(Collectors.toList()), now);
+    }
+
+    /**
+     * Ответ с этими вещами устареет без записи, когда начнётся ближайшее из их следующих бронирований
+     **/
+    public void expireAtNextStart(Collection<Item> items) {
+        items.stream()
+                .map(Item::getNextBooking)
+                .filter(Objects::nonNull)
+                .map(BookingPointer::getStart)
+                .min(Comparator.naturalOrder())
+                .ifPresent(changeFeed::expireAt);
+    }
+
+    public void refresh(Item item, LocalDateTime now) {
+        refresh(List.of(item), now);
+    }
+
+    /**
+     * Пересчитывает ссылки двумя запросами на все переданные вещи, независимо от их количества
+     **/
+    public void refresh(Collection<Item> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, Booking> lastBookings = byItemId(bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, Booking> nextBookings = byItemId(bookingRepository.findNextBookings(itemIds, now));
+        for (Item item : items) {
+            BookingPointer lastBooking = BookingPointer.of(lastBookings.get(item.getId()));
+            BookingPointer nextBooking = BookingPointer.of(nextBookings.get(item.getId()));
+            if (!sameBooking(item.getLastBooking(), lastBooking) || !sameBooking(item.getNextBooking(), nextBooking)) {
+                changeFeed.publish(ChangeType.ITEM, item.getId());
+            }
+            item.setLastBooking(lastBooking);
+            item.setNextBooking(nextBooking);
+        }
+    }
+
+    /**
+     * Пересчитывает порцию вещей отдельной транзакцией. Вещи перечитываются с блокировкой: между выбором порции
+     * и пересчётом их ссылки могли уже обновиться при подтверждении бронирования
+     **/
+    @Transactional
+    public void rollForward(Collection<Long> itemIds, LocalDateTime now) {
+        refreshStale(itemRepository.lockAllByIdIn(itemIds), now);
+    }
+
+    private Map<Long, Booking> byItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+    }
+
+    private boolean sameBooking(BookingPointer pointer, BookingPointer other) {
+        return pointer == null ? other == null : other != null && pointer.getBookingId().equals(other.getBookingId());
+    }
+
+    private boolean pointsTo(BookingPointer pointer, Booking booking) {
+        return pointer != null && pointer.getBookingId().equals(booking.getId());
+    }
+}
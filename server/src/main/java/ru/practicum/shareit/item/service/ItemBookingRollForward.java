@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Периодически пересчитывает ссылки у вещей, следующее бронирование которых уже началось.
+ * Вещи выбираются страницами по id (keyset) размером BATCH_SIZE, каждая страница - отдельная транзакция,
+ * поэтому после долгого простоя ни память, ни длительность транзакции не зависят от числа устаревших вещей.
+ * Страница, вещи которой не удалось заблокировать, пропускается: они пересчитаются при чтении
+ * или при следующем запуске
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingRollForward {
+    static final int BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final ItemBookingPointers itemBookingPointers;
+
+    @Scheduled(fixedDelayString = "${shareit.item-bookings.roll-forward-delay:60000}",
+            initialDelayString = "${shareit.item-bookings.roll-forward-delay:60000}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int refreshed = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = itemRepository.findIdsByNextBookingStartBefore(now, afterId, PageRequest.of(0, BATCH_SIZE));
+            if (itemIds.isEmpty()) {
+                break;
+            }
+            try {
+                itemBookingPointers.rollForward(itemIds, now);
+                refreshed += itemIds.size();
+            } catch (ConcurrencyFailureException e) {
+                log.warn("Ссылки на бронирования у вещей с id с {} по {} не обновлены: {}",
+                        itemIds.get(0), itemIds.get(itemIds.size() - 1), e.getMessage());
+            }
+            afterId = itemIds.get(itemIds.size() - 1);
+        } while (itemIds.size() == BATCH_SIZE);
+
+        if (refreshed > 0) {
+            log.info("Обновлены ссылки на бронирования у {} вещей.", refreshed);
+        }
+    }
+}
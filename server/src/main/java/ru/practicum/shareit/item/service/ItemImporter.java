@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Импорт вещей из NDJSON-потока строк, уже проверенных шлюзом.
+ * Строки читаются по одной и сохраняются порциями по CHUNK_SIZE, каждая порция - отдельная транзакция,
+ * поэтому память не зависит от размера файла. Если порция не сохранилась, её строки сохраняются по одной,
+ * чтобы в отчёт попали только строки с ошибкой. В отчёте хранятся первые MAX_ERRORS ошибок
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemImporter {
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_ERRORS = 1000;
+
+    private final ItemService itemService;
+    private final UserExistenceCache userExistenceCache;
+    private final ObjectMapper objectMapper;
+
+    public ItemImportReport importItems(InputStream rows, long userId) throws IOException {
+        log.info("Импорт предметов пользователю с id = {}.", userId);
+
+        if (!userExistenceCache.exists(userId)) {
+            //Тело дочитывается, чтобы шлюз не получил обрыв соединения вместо ответа 404
+            StreamUtils.drain(rows);
+            throw new UserNotFoundException(String.format("Пользователь с id = %s не найден", userId));
+        }
+
+        ItemImportReport report = new ItemImportReport();
+        List<ItemImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (MappingIterator<ItemImportRow> iterator = objectMapper.readerFor(ItemImportRow.class).readValues(rows)) {
+            while (iterator.hasNextValue()) {
+                chunk.add(iterator.nextValue());
+                if (chunk.size() == CHUNK_SIZE) {
+                    saveChunk(chunk, userId, report);
+                    chunk.clear();
+                }
+            }
+        }
+        saveChunk(chunk, userId, report);
+
+        log.info("Импорт завершён: сохранено {}, отклонено {}.", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void saveChunk(List<ItemImportRow> chunk, long userId, ItemImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ItemDto> itemDtos = new ArrayList<>(chunk.size());
+        for (ItemImportRow row : chunk) {
+            itemDtos.add(toItemDto(row));
+        }
+        try {
+            itemService.addItems(itemDtos, userId);
+            report.setImported(report.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Порция из {} строк не сохранена, строки сохраняются по одной: {}", chunk.size(), e.getMessage());
+            for (ItemImportRow row : chunk) {
+                saveRow(row, userId, report);
+            }
+        }
+    }
+
+    private void saveRow(ItemImportRow row, long userId, ItemImportReport report) {
+        try {
+            itemService.addItems(List.of(toItemDto(row)), userId);
+            report.setImported(report.getImported() + 1);
+        } catch (DataAccessException e) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < MAX_ERRORS) {
+                report.getErrors().add(new ItemImportError(row.getLine(),
+                        "Строка не сохранена: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            }
+        }
+    }
+
+    private ItemDto toItemDto(ItemImportRow row) {
+        return ItemDto.builder()
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .requestId(row.getRequestId())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по названию и описанию. Реализация выбирается свойством shareit.item-search
+ **/
+public interface ItemSearch {
+    List<Item> search(String text, int from, int size);
+
+    /**
+     * Вызывается после сохранения вещи. Нужен только реализациям, которые держат свой индекс
+     **/
+    default void indexItem(Item item) {
+    }
+}
@@ -15,6 +15,8 @@ public interface ItemService {
 
     ItemDto addItem(ItemDto itemDto, long userId);
 
+    List<ItemDto> addItems(List<ItemDto> itemDtos, long userId);
+
     ItemDto updateItem(ItemDto itemDto, long itemId, long userId);
 
     CommentDto addComment(CommentDto commentDto, long itemId, long userId);
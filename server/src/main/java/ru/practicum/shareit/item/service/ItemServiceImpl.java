@@ -8,11 +8,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.exception.BookingValidationException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
@@ -24,15 +26,16 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.CommentRepository;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.request.service.RequestFeedCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,14 +46,20 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final ItemBookingPointers itemBookingPointers;
+    private final ItemSearch itemSearch;
+    private final RequestFeedCache requestFeedCache;
+    private final UserExistenceCache userExistenceCache;
+    private final ChangeFeed changeFeed;
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemFullDto> getUserItems(long userId, int from, int size) {
         log.info("Вывод всех предметов пользователя с id = {}:", userId);
 
-        userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
-                String.format("Пользователь с id = %s не найден", userId)));
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id = %s не найден", userId));
+        }
 
         Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("id").ascending());
         Page<Item> itemsPage = itemRepository.findAllByOwnerId(userId, pageable);
@@ -65,24 +74,17 @@ public class ItemServiceImpl implements ItemService {
                 .stream()
                 .collect(Collectors.groupingBy(Comment::getItem));
 
-        Map<Item, Booking> lastBookings = bookingRepository
-                .findLastBookings(
-                        userId, LocalDateTime.now())
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity()));
-
-        Map<Item, Booking> nextBookings = bookingRepository
-                .findNextBooking(
-                        userId, LocalDateTime.now())
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity()));
+        //Если периодическое обновление ещё не дошло до вещей страницы, их ссылки пересчитываются здесь.
+        //В транзакции только для чтения результат не сохраняется - это сделает обновление
+        itemBookingPointers.refreshStale(items, LocalDateTime.now());
+        itemBookingPointers.expireAtNextStart(items);
 
         List<ItemFullDto> itemsDto = new ArrayList<>();
         for (Item item : items) {
             ItemFullDto itemFullDto = ItemMapper.toItemFullDto(
                     item,
-                    BookingMapper.toBookingForItemDto(lastBookings.get(item)),
-                    BookingMapper.toBookingForItemDto(nextBookings.get(item)),
+                    BookingMapper.toBookingForItemDto(item.getLastBooking()),
+                    BookingMapper.toBookingForItemDto(item.getNextBooking()),
                     CommentMapper.toCommentDto(comments.get(item))
             );
             itemsDto.add(itemFullDto);
@@ -98,20 +100,24 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(
                 String.format("Предмета с id = %s не существует", itemId)));
 
-        Booking lastBooking = bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(
-                item.getId(), userId, LocalDateTime.now(), BookingStatus.APPROVED);
-        Booking nextBooking = null;
-        if (lastBooking != null) {
-            nextBooking = bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(
-                    item.getId(), userId, lastBooking.getStart(), BookingStatus.APPROVED);
+        //Бронирования видит только владелец, следующее - только если уже было последнее
+        BookingForItemDto lastBooking = null;
+        BookingForItemDto nextBooking = null;
+        if (item.getOwner().getId() == userId) {
+            itemBookingPointers.refreshStale(List.of(item), LocalDateTime.now());
+            itemBookingPointers.expireAtNextStart(List.of(item));
+            lastBooking = BookingMapper.toBookingForItemDto(item.getLastBooking());
+            if (lastBooking != null) {
+                nextBooking = BookingMapper.toBookingForItemDto(item.getNextBooking());
+            }
         }
 
         List<CommentDto> commentsDto = CommentMapper.toCommentDto(commentRepository.findAllByItemId(itemId));
 
         return ItemMapper.toItemFullDto(
                 item,
-                BookingMapper.toBookingForItemDto(lastBooking),
-                BookingMapper.toBookingForItemDto(nextBooking),
+                lastBooking,
+                nextBooking,
                 commentsDto);
     }
 
@@ -119,11 +125,7 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> searchItems(String text, int from, int size) {
         log.info("Поиск предметов содержащих <{}>:", text);
 
-        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size);
-        Page<Item> itemsPage = itemRepository.search(text, pageable);
-        List<Item> items = itemsPage.getContent();
-
-        return ItemMapper.toItemDto(items);
+        return ItemMapper.toItemDto(itemSearch.search(text, from, size));
     }
 
     @Transactional
@@ -131,13 +133,51 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto addItem(ItemDto itemDto, long userId) {
         log.info("Добавление предмета пользователю с id = {}:", userId);
 
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
-                String.format("Пользователь с id = %s не найден", userId)));
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id = %s не найден", userId));
+        }
 
+        //Владелец в ответ не попадает - для внешнего ключа достаточно ссылки без чтения из базы
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(user);
+        item.setOwner(userRepository.getReferenceById(userId));
+        Item savedItem = itemRepository.save(item);
+        itemSearch.indexItem(savedItem);
+        requestFeedCache.onItemSaved(savedItem);
+        publishItemChange(savedItem);
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        return ItemMapper.toItemDto(savedItem);
+    }
+
+    /**
+     * Сохраняет вещи одной транзакцией - вставки уходят в базу пакетами
+     **/
+    @Transactional
+    @Override
+    public List<ItemDto> addItems(List<ItemDto> itemDtos, long userId) {
+        log.info("Добавление {} предметов пользователю с id = {}:", itemDtos.size(), userId);
+
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id = %s не найден", userId));
+        }
+
+        User owner = userRepository.getReferenceById(userId);
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = ItemMapper.toItem(itemDto);
+            //Новая вещь без id сохраняется через persist, без предварительного select
+            item.setId(null);
+            item.setOwner(owner);
+            items.add(item);
+        }
+
+        List<Item> savedItems = itemRepository.saveAll(items);
+        for (Item savedItem : savedItems) {
+            itemSearch.indexItem(savedItem);
+            requestFeedCache.onItemSaved(savedItem);
+            publishItemChange(savedItem);
+        }
+
+        return ItemMapper.toItemDto(savedItems);
     }
 
     @Transactional
@@ -173,7 +213,12 @@ public class ItemServiceImpl implements ItemService {
             log.info("Статус предмета обновлён на {}.", available);
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(existingItem));
+        Item savedItem = itemRepository.save(existingItem);
+        itemSearch.indexItem(savedItem);
+        requestFeedCache.onItemSaved(savedItem);
+        publishItemChange(savedItem);
+
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Transactional
@@ -189,6 +234,17 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new BookingValidationException("Пользователь не бронировал данную вещь"));
 
         Comment comment = commentRepository.save(CommentMapper.toComment(commentDto, item, user));
+        changeFeed.publish(ChangeType.ITEM, itemId);
         return CommentMapper.toCommentDto(comment);
     }
+
+    /**
+     * Вещь выводится и в ответе на запрос, на который она откликнулась, - он тоже изменился
+     **/
+    private void publishItemChange(Item item) {
+        changeFeed.publish(ChangeType.ITEM, item.getId());
+        if (item.getRequest() != null) {
+            changeFeed.publish(ChangeType.REQUEST, item.getRequest());
+        }
+    }
 }
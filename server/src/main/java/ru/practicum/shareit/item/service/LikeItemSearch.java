@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск подстроки через LIKE - работает на любой базе. На Postgres запрос обслуживают триграммные индексы
+ * pg_trgm (schema-postgresql-like.sql), на остальных базах просматривается вся таблица вещей
+ **/
+@Component
+@ConditionalOnProperty(name = "shareit.item-search", havingValue = "like", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LikeItemSearch implements ItemSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size);
+        return itemRepository.search(text, pageable).getContent();
+    }
+}
@@ -0,0 +1,210 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск подстроки с той же семантикой, что и LIKE '%text%' без учёта регистра, но без просмотра всех вещей.
+ * Для каждой тройки символов названия и описания хранится битовая карта порядковых номеров вещей.
+ * Кандидаты - пересечение карт всех троек запроса, затем каждый кандидат проверяется на вхождение подстроки.
+ * Индекс целиком в памяти: для каждой доступной вещи - название и описание в верхнем регистре (2 байта на символ
+ * кириллицы), для каждой тройки - BitSet длиной до наибольшего номера вещи с ней, в худшем случае
+ * (число троек) * (число вещей) / 8 байт. Длина описания не ограничена, поэтому режим рассчитан на каталоги,
+ * которые помещаются в память; на Postgres для больших каталогов подходит режим like с индексами pg_trgm
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item-search", havingValue = "trigram")
+@RequiredArgsConstructor
+public class TrigramItemSearch implements ItemSearch {
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, BitSet> trigrams = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<IndexedItem> indexedItems = new ArrayList<>();
+    private final BitSet available = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void build() {
+        long lastId = 0;
+        List<Item> items;
+        do {
+            items = itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(lastId,
+                    PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Item item : items) {
+                put(IndexedItem.of(item));
+                lastId = item.getId();
+            }
+        } while (items.size() == LOAD_BATCH_SIZE);
+        log.info("Триграммный индекс вещей построен: {} вещей, {} триграмм", available.cardinality(), trigrams.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        if (text.indexOf('%') >= 0 || text.indexOf('_') >= 0) {
+            //В LIKE это шаблонные символы, такие запросы отдаются базе как есть
+            return itemRepository.search(text, PageRequest.of(from > 0 ? from / size : 0, size)).getContent();
+        }
+
+        String query = text.toUpperCase(Locale.ROOT);
+        long[] found;
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(query);
+            found = candidates.stream()
+                    .mapToObj(indexedItems::get)
+                    .filter(item -> item.contains(query))
+                    .mapToLong(IndexedItem::getId)
+                    .sorted()
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int offset = from > 0 ? (from / size) * size : 0;
+        if (offset >= found.length) {
+            return List.of();
+        }
+        List<Long> pageIds = Arrays.stream(found, offset, Math.min(offset + size, found.length))
+                .boxed()
+                .collect(Collectors.toList());
+        return itemRepository.findAllById(pageIds).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Изменения применяются после фиксации транзакции, чтобы откаченные правки не попали в индекс
+     **/
+    @Override
+    public void indexItem(Item item) {
+        IndexedItem indexedItem = IndexedItem.of(item);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(indexedItem);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(indexedItem);
+            }
+        });
+    }
+
+    /**
+     * Запрос короче трёх символов не даёт ни одной тройки - кандидатами становятся все доступные вещи
+     **/
+    private BitSet candidates(String query) {
+        BitSet candidates = (BitSet) available.clone();
+        for (long trigram : trigramsOf(query)) {
+            BitSet ordinalsWithTrigram = trigrams.get(trigram);
+            if (ordinalsWithTrigram == null) {
+                return new BitSet();
+            }
+            candidates.and(ordinalsWithTrigram);
+        }
+        return candidates;
+    }
+
+    private void put(IndexedItem item) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(item.getId());
+            if (ordinal == null) {
+                ordinal = indexedItems.size();
+                ordinals.put(item.getId(), ordinal);
+                indexedItems.add(item);
+            } else {
+                for (long trigram : indexedItems.get(ordinal).trigrams()) {
+                    BitSet ordinalsWithTrigram = trigrams.get(trigram);
+                    ordinalsWithTrigram.clear(ordinal);
+                    if (ordinalsWithTrigram.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+                indexedItems.set(ordinal, item);
+            }
+
+            available.set(ordinal, item.isAvailable());
+            if (item.isAvailable()) {
+                for (long trigram : item.trigrams()) {
+                    trigrams.computeIfAbsent(trigram, key -> new BitSet()).set(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Тройка символов упаковывается в long по 16 бит на символ
+     **/
+    static long[] trigramsOf(String text) {
+        long[] result = new long[Math.max(text.length() - 2, 0)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return result;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedItem {
+        private final long id;
+        private final boolean available;
+        private final String name;
+        private final String description;
+
+        /**
+         * Недоступная вещь не попадает в кандидаты, поэтому её текст не хранится
+         **/
+        static IndexedItem of(Item item) {
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return new IndexedItem(item.getId(), false, "", "");
+            }
+            return new IndexedItem(item.getId(), true,
+                    Objects.toString(item.getName(), "").toUpperCase(Locale.ROOT),
+                    Objects.toString(item.getDescription(), "").toUpperCase(Locale.ROOT));
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        /**
+         * Тройки считаются по полям отдельно, чтобы не появлялись тройки на стыке названия и описания
+         **/
+        long[] trigrams() {
+            long[] nameTrigrams = trigramsOf(name);
+            long[] descriptionTrigrams = trigramsOf(description);
+            long[] result = Arrays.copyOf(nameTrigrams, nameTrigrams.length + descriptionTrigrams.length);
+            System.arraycopy(descriptionTrigrams, 0, result, nameTrigrams.length, descriptionTrigrams.length);
+            return Arrays.stream(result).distinct().toArray();
+        }
+    }
+}
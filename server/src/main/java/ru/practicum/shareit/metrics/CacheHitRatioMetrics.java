@@ -0,0 +1,54 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Доля попаданий в кэш второго уровня по регионам и в кэш запросов.
+ * Счётчики попаданий и промахов публикует Spring Boot (hibernate.second.level.cache.requests,
+ * hibernate.cache.query.requests), здесь из них считается отношение - /actuator/metrics/hibernate.cache.hit.ratio.
+ * Статистика Hibernate собирается на каждой операции сессии, поэтому включается вместе с метрикой свойством
+ * shareit.cache-metrics.enabled (по умолчанию выключено)
+ **/
+@Component
+@ConditionalOnProperty(name = "shareit.cache-metrics.enabled", havingValue = "true")
+public class CacheHitRatioMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    public CacheHitRatioMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> regionHitRatio(s, region))
+                    .tag("region", region)
+                    .description("Доля попаданий в регион кэша второго уровня")
+                    .register(registry);
+        }
+        Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                        s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                .tag("region", "query-results")
+                .description("Доля попаданий в кэш запросов")
+                .register(registry);
+    }
+
+    private static double regionHitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        return ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? Double.NaN : (double) hits / requests;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Курсор постраничного вывода по ключу (дата, id) - позиция последнего элемента предыдущей страницы.
+ * Передаётся в виде строки "2023-06-15T10:10:00,5"
+ **/
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class KeysetCursor {
+    private final LocalDateTime position;
+    private final long id;
+
+    public static KeysetCursor parse(String token) {
+        int separator = token.lastIndexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException(String.format("Некорректный курсор: %s", token));
+        }
+        try {
+            return new KeysetCursor(
+                    LocalDateTime.parse(token.substring(0, separator).trim()),
+                    Long.parseLong(token.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Некорректный курсор: %s", token), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return position + "," + id;
+    }
+}
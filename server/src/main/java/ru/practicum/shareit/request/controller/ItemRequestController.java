@@ -29,7 +29,11 @@ public class ItemRequestController {
     @GetMapping("/all")
     public List<ItemRequestResponseFullDto> getUserRequests(@RequestHeader("X-Sharer-User-Id") long userId,
                                                             @RequestParam(defaultValue = "0") Integer from,
-                                                            @RequestParam(defaultValue = "10") Integer size) {
+                                                            @RequestParam(defaultValue = "10") Integer size,
+                                                            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return itemRequestService.getUserRequestsAfter(userId, after, size);
+        }
         return itemRequestService.getUserRequests(userId, from, size);
     }
 
@@ -9,12 +9,15 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @UtilityClass
 public class ItemRequestMapper {
     public ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User user) {
-        return new ItemRequest(null, user, itemRequestDto.getDescription(), LocalDateTime.now());
+        //База хранит микросекунды - дата в ответе и в курсоре ленты должна совпадать с сохранённой
+        return new ItemRequest(null, user, itemRequestDto.getDescription(),
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
     }
 
     public ItemRequestResponseDto toItemRequestResponseDto(ItemRequest itemRequest) {
@@ -1,14 +1,31 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<ItemRequest> findAllByUserIdOrderByCreatedDesc(Long userId);
 
-    Page<ItemRequest> findAllByUserIdNot(long userId, Pageable page);
+    List<ItemRequest> findAllByUserIdNot(long userId, Pageable page);
+
+    List<ItemRequest> findAllBy(Pageable page);
+
+    /**
+     * Запросы других пользователей, созданные раньше курсора (created, id), от новых к старым
+     **/
+    @Query("select r from ItemRequest r " +
+            "where r.user.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByUserIdNotAfter(long userId, LocalDateTime created, long id, Pageable page);
 }
@@ -14,5 +14,7 @@ public interface ItemRequestService {
 
     List<ItemRequestResponseFullDto> getUserRequests(long userId, int from, int size);
 
+    List<ItemRequestResponseFullDto> getUserRequestsAfter(long userId, String after, int size);
+
     ItemRequestResponseFullDto getRequestById(Long requestId, Long userId);
 }
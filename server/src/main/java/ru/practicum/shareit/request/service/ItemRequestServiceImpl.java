@@ -2,16 +2,18 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseFullDto;
@@ -22,18 +24,26 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort FEED_SORT = Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id"));
+
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final RequestFeedCache requestFeedCache;
+    private final UserExistenceCache userExistenceCache;
+    private final ChangeFeed changeFeed;
 
     @Transactional
     @Override
@@ -43,8 +53,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
                 String.format("Пользователь с id = %s не найден", userId)));
 
-        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, user);
-        return ItemRequestMapper.toItemRequestResponseDto(itemRequestRepository.save(itemRequest));
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDto, user));
+        requestFeedCache.onRequestCreated(itemRequest);
+        changeFeed.publish(ChangeType.REQUEST, itemRequest.getId());
+        return ItemRequestMapper.toItemRequestResponseDto(itemRequest);
     }
 
     @Transactional(readOnly = true)
@@ -52,21 +64,47 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestResponseFullDto> getOwnerRequests(long userId) {
         log.info("Вывод всех запросов владельца с id = {}.", userId);
 
-        userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
-                String.format("Пользователь с id = %s не найден", userId)));
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id = %s не найден", userId));
+        }
 
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserIdOrderByCreatedDesc(userId);
 
         return toFullItemRequestResponseDto(itemRequests);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<ItemRequestResponseFullDto> getUserRequests(long userId, int from, int size) {
         log.info("Вывод всех запросов пользователя с id = {}, начиная с {}, выводя по {}.", userId, from, size);
 
-        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("created").descending());
-        Page<ItemRequest> itemRequestPage = itemRequestRepository.findAllByUserIdNot(userId, pageable);
-        List<ItemRequest> itemRequests = itemRequestPage.getContent();
+        Optional<List<ItemRequestResponseFullDto>> cached = requestFeedCache.getPage(userId, from, size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, FEED_SORT);
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserIdNot(userId, pageable);
+
+        return toFullItemRequestResponseDto(itemRequests);
+    }
+
+    /**
+     * Выводит страницу запросов других пользователей после курсора (created, id) - без OFFSET и COUNT
+     **/
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestResponseFullDto> getUserRequestsAfter(long userId, String after, int size) {
+        log.info("Вывод всех запросов пользователя с id = {} после {}, выводя по {}.", userId, after, size);
+
+        KeysetCursor cursor = KeysetCursor.parse(after);
+        Optional<List<ItemRequestResponseFullDto>> cached = requestFeedCache.getPageAfter(userId, cursor, size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserIdNotAfter(
+                userId, cursor.getPosition(), cursor.getId(), PageRequest.of(0, size));
 
         return toFullItemRequestResponseDto(itemRequests);
     }
@@ -74,8 +112,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public ItemRequestResponseFullDto getRequestById(Long requestId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
-                String.format("Пользователь с id = %s не имеет права искать запросы", userId)));
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(
+                    String.format("Пользователь с id = %s не имеет права искать запросы", userId));
+        }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(
                 () -> new ItemRequestNotFoundException(String.format("Запрос на предмет с id = %d не найден.", requestId)));
@@ -83,10 +123,21 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestResponseFullDto(itemRequest, itemsForRequestDto);
     }
 
+    /**
+     * Ответы на все запросы страницы загружаются одним запросом и раскладываются по id запроса
+     **/
     private List<ItemRequestResponseFullDto> toFullItemRequestResponseDto(List<ItemRequest> itemRequests) {
-        return itemRequests.isEmpty() ? Collections.emptyList() : itemRequests.stream()
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> requestIds = itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequestIn(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequest));
+
+        return itemRequests.stream()
                 .map(itemRequest -> {
-                    List<Item> items = itemRepository.findAllByRequest(itemRequest.getId());
+                    List<Item> items = itemsByRequest.getOrDefault(itemRequest.getId(), Collections.emptyList());
                     List<ItemDto> itemsDto = ItemMapper.toItemDto(items);
                     return ItemRequestMapper.toItemRequestResponseFullDto(itemRequest, itemsDto);
                 })
@@ -0,0 +1,248 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemRequestResponseFullDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Окно из capacity самых новых запросов вместе с вещами, которые на них ответили, общее для всех пользователей.
+ * Лента /requests/all пользователя - это окно без его собственных запросов. Если страница выходит за окно,
+ * возвращается пустой Optional и страницу читают из базы.
+ * Окно загружается при первом чтении и дополняется после фиксации createRequest, addItem и updateItem
+ **/
+@Slf4j
+@Component
+public class RequestFeedCache {
+    private static final Sort FEED_SORT = Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id"));
+    private static final Comparator<KeysetCursor> NEWEST_FIRST = Comparator
+            .comparing(KeysetCursor::getPosition, Comparator.reverseOrder())
+            .thenComparing(KeysetCursor::getId, Comparator.reverseOrder());
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+    private final NavigableMap<KeysetCursor, FeedEntry> entries = new TreeMap<>(NEWEST_FIRST);
+    private final Map<Long, KeysetCursor> keys = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean loaded;
+    /**
+     * В окне лежат все запросы из базы - за его пределы выходить не нужно
+     **/
+    private boolean complete;
+
+    public RequestFeedCache(ItemRequestRepository itemRequestRepository,
+                            ItemRepository itemRepository,
+                            @Value("${shareit.request-feed.capacity:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+    }
+
+    public Optional<List<ItemRequestResponseFullDto>> getPage(long userId, int from, int size) {
+        load();
+        lock.readLock().lock();
+        try {
+            return collect(entries.values(), userId, from > 0 ? (from / size) * size : 0, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<List<ItemRequestResponseFullDto>> getPageAfter(long userId, KeysetCursor after, int size) {
+        load();
+        lock.readLock().lock();
+        try {
+            return collect(entries.tailMap(after, false).values(), userId, 0, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onRequestCreated(ItemRequest itemRequest) {
+        FeedEntry entry = new FeedEntry(itemRequest.getId(), itemRequest.getUser().getId(),
+                itemRequest.getDescription(), itemRequest.getCreated(), List.of());
+        afterCommit(() -> write(() -> {
+            if (loaded) {
+                put(entry);
+            }
+        }));
+    }
+
+    /**
+     * Вещь, ответившая на запрос из окна, добавляется в него или заменяет свою прежнюю версию
+     **/
+    public void onItemSaved(Item item) {
+        if (item.getRequest() == null) {
+            return;
+        }
+        long requestId = item.getRequest();
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        afterCommit(() -> write(() -> {
+            KeysetCursor key = keys.get(requestId);
+            if (key == null) {
+                return;
+            }
+            FeedEntry entry = entries.get(key);
+            List<ItemDto> items = entry.getItems().stream()
+                    .filter(existing -> existing.getId() != itemDto.getId())
+                    .collect(Collectors.toCollection(ArrayList::new));
+            items.add(itemDto);
+            items.sort(Comparator.comparing(ItemDto::getId));
+            entries.put(key, entry.withItems(List.copyOf(items)));
+        }));
+    }
+
+    /**
+     * Сбрасывает окно, следующее чтение загрузит его из базы заново
+     **/
+    public void clear() {
+        write(() -> {
+            entries.clear();
+            keys.clear();
+            loaded = false;
+            complete = false;
+        });
+    }
+
+    private Optional<List<ItemRequestResponseFullDto>> collect(Collection<FeedEntry> feed, long userId,
+                                                               int offset, int size) {
+        List<ItemRequestResponseFullDto> page = new ArrayList<>(size);
+        int skipped = 0;
+        for (FeedEntry entry : feed) {
+            if (entry.getUserId() == userId) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(entry.toDto());
+            if (page.size() == size) {
+                return Optional.of(page);
+            }
+        }
+        return complete ? Optional.of(page) : Optional.empty();
+    }
+
+    private void load() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        write(() -> {
+            if (loaded) {
+                return;
+            }
+            List<ItemRequest> itemRequests = itemRequestRepository.findAllBy(PageRequest.of(0, capacity, FEED_SORT));
+            Map<Long, List<ItemDto>> itemsByRequest = itemRequests.isEmpty() ? Map.of() : itemRepository
+                    .findAllByRequestIn(itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList()))
+                    .stream()
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.groupingBy(Item::getRequest,
+                            Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+            for (ItemRequest itemRequest : itemRequests) {
+                put(new FeedEntry(itemRequest.getId(), itemRequest.getUser().getId(), itemRequest.getDescription(),
+                        itemRequest.getCreated(), itemsByRequest.getOrDefault(itemRequest.getId(), List.of())));
+            }
+            complete = itemRequests.size() < capacity;
+            loaded = true;
+            log.info("Загружено окно ленты запросов: {} запросов", itemRequests.size());
+        });
+    }
+
+    /**
+     * Запрос старше последнего в неполном окне в окно не попадает - он и так за его пределами
+     **/
+    private void put(FeedEntry entry) {
+        KeysetCursor key = entry.key();
+        if (!complete && entries.size() >= capacity && NEWEST_FIRST.compare(key, entries.lastKey()) > 0) {
+            return;
+        }
+        KeysetCursor previous = keys.put(entry.getId(), key);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+        entries.put(key, entry);
+        while (entries.size() > capacity) {
+            keys.remove(entries.pollLastEntry().getValue().getId());
+            complete = false;
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class FeedEntry {
+        private final long id;
+        private final long userId;
+        private final String description;
+        private final LocalDateTime created;
+        private final List<ItemDto> items;
+
+        KeysetCursor key() {
+            return new KeysetCursor(created, id);
+        }
+
+        FeedEntry withItems(List<ItemDto> items) {
+            return new FeedEntry(id, userId, description, created, items);
+        }
+
+        ItemRequestResponseFullDto toDto() {
+            return new ItemRequestResponseFullDto(id, description, created, new ArrayList<>(items));
+        }
+    }
+}
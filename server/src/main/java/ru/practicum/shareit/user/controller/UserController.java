@@ -1,23 +1,61 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(path = "/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    @GetMapping
-    public List<UserDto> getAllUsers() {
+    /**
+     * Без параметров выводит всех пользователей, с size - страницу по from/size, с after - страницу после id = after
+     **/
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<UserDto> getAllUsers(@RequestParam(required = false) Integer from,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) Long after) {
+        if (after != null) {
+            return userService.getUsersAfter(after, size != null ? size : DEFAULT_PAGE_SIZE);
+        }
+        if (size != null) {
+            return userService.getUsers(from != null ? from : 0, size);
+        }
         return userService.getAllUsers();
     }
 
+    /**
+     * Все пользователи построчно в формате NDJSON - каждая строка пишется в ответ сразу после чтения из базы
+     **/
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> userService.forEachUser(user -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUserById(@PathVariable long userId) {
         return userService.getUserById(userId);
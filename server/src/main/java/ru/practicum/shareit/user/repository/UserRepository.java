@@ -1,10 +1,31 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    List<User> findAllBy(Pageable page);
+
+    List<User> findAllByIdGreaterThanOrderById(long id, Pageable page);
+
+    /**
+     * Все пользователи по порядку id без загрузки в контекст - строки читаются из базы порциями по 500.
+     * Поток нужно закрыть внутри транзакции
+     **/
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAll();
 }
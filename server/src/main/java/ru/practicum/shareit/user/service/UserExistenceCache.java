@@ -0,0 +1,117 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш существования пользователей по id из заголовка X-Sharer-User-Id.
+ * Найденные id хранятся до capacity штук с вытеснением давно не использованных, не найденные - столько же,
+ * но не дольше missingTtl, чтобы поток запросов с несуществующим id не доходил до базы.
+ * Сохранение и удаление пользователя попадают в кэш после фиксации транзакции. Ответ базы, полученный
+ * во время такого изменения, в кэш не кладётся
+ **/
+@Component
+public class UserExistenceCache {
+    private final UserRepository userRepository;
+    private final long missingTtlNanos;
+    private final Map<Long, Boolean> present;
+    private final Map<Long, Long> missing;
+    /**
+     * Увеличивается при каждом сохранении и удалении пользователя
+     **/
+    private long version;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${shareit.user-cache.capacity:10000}") int capacity,
+                              @Value("${shareit.user-cache.missing-ttl:60s}") Duration missingTtl) {
+        this.userRepository = userRepository;
+        this.missingTtlNanos = missingTtl.toNanos();
+        this.present = lruMap(capacity);
+        this.missing = lruMap(capacity);
+    }
+
+    public boolean exists(long userId) {
+        long checkedVersion;
+        synchronized (this) {
+            if (present.get(userId) != null) {
+                return true;
+            }
+            Long expiresAt = missing.get(userId);
+            if (expiresAt != null) {
+                if (System.nanoTime() - expiresAt < 0) {
+                    return false;
+                }
+                missing.remove(userId);
+            }
+            checkedVersion = version;
+        }
+
+        boolean exists = userRepository.existsById(userId);
+
+        synchronized (this) {
+            if (checkedVersion == version) {
+                if (exists) {
+                    present.put(userId, Boolean.TRUE);
+                } else {
+                    missing.put(userId, System.nanoTime() + missingTtlNanos);
+                }
+            }
+        }
+        return exists;
+    }
+
+    public void onUserSaved(long userId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                missing.remove(userId);
+                present.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public void onUserDeleted(long userId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                present.remove(userId);
+                missing.put(userId, System.nanoTime() + missingTtlNanos);
+            }
+        });
+    }
+
+    public synchronized void clear() {
+        version++;
+        present.clear();
+        missing.clear();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <V> Map<Long, V> lruMap(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
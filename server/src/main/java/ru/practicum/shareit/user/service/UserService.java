@@ -3,10 +3,17 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     List<UserDto> getAllUsers();
 
+    List<UserDto> getUsers(int from, int size);
+
+    List<UserDto> getUsersAfter(long after, int size);
+
+    void forEachUser(Consumer<UserDto> action);
+
     UserDto getUserById(long userId);
 
     UserDto saveUser(UserDto userDto);
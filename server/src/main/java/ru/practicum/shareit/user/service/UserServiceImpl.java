@@ -2,8 +2,15 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserAlreadyExistException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -12,13 +19,18 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final ChangeFeed changeFeed;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -35,6 +47,39 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getUsers(int from, int size) {
+        log.info("Вывод пользователей, начиная с {}, выводя по {}.", from, size);
+
+        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("id"));
+        return UserMapper.toUserDto(userRepository.findAllBy(pageable));
+    }
+
+    /**
+     * Выводит страницу пользователей с id больше after - без OFFSET и COUNT
+     **/
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getUsersAfter(long after, int size) {
+        log.info("Вывод пользователей после id = {}, выводя по {}.", after, size);
+
+        return UserMapper.toUserDto(userRepository.findAllByIdGreaterThanOrderById(after, PageRequest.of(0, size)));
+    }
+
+    /**
+     * Передаёт пользователей в action по одному, не собирая список в памяти
+     **/
+    @Transactional(readOnly = true)
+    @Override
+    public void forEachUser(Consumer<UserDto> action) {
+        log.info("Потоковый вывод всех пользователей:");
+
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(action);
+        }
+    }
+
     @Override
     public UserDto getUserById(long userId) {
         log.info("Вывод пользователя с id = {}:", userId);
@@ -52,6 +97,8 @@ public class UserServiceImpl implements UserService {
 
         User user = userRepository.save(UserMapper.toUser(userDto));
         log.info("Пользователь сохранён с id = {}.", user.getId());
+        userExistenceCache.onUserSaved(user.getId());
+        changeFeed.publish(ChangeType.USER, user.getId());
         return UserMapper.toUserDto(user);
     }
 
@@ -69,20 +116,26 @@ public class UserServiceImpl implements UserService {
             } else {
                 existingUser.setName(userDto.getName());
                 log.info("Имя пользователя обновлено на {}.", userDto.getName());
+                //Имя автора выводится в отзывах, поэтому могли измениться любые вещи
+                changeFeed.publish(ChangeType.ITEM, null);
             }
         }
 
         if (userDto.getEmail() != null) {
-            for (User user : userRepository.findAll()) {
-                if (user.getEmail().equals(userDto.getEmail()) && user.getId() != userId) {
-                    throw new UserAlreadyExistException(String.format("Email %s уже существует.", userDto.getEmail()));
-                }
-            }
             existingUser.setEmail(userDto.getEmail());
             log.info("Почта пользователя обновлена на {}.", userDto.getEmail());
         }
 
-        userRepository.save(existingUser);
+        //Уникальность почты проверяет ограничение uq_users_email - нарушение видно только при записи в базу
+        try {
+            userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesEmailConstraint(e)) {
+                throw e;
+            }
+            throw new UserAlreadyExistException(String.format("Email %s уже существует.", userDto.getEmail()));
+        }
+        changeFeed.publish(ChangeType.USER, userId);
         return UserMapper.toUserDto(existingUser);
     }
 
@@ -91,5 +144,18 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(long userId) {
         log.info("Удаление пользователя с id = {}:", userId);
         userRepository.deleteById(userId);
+        userExistenceCache.onUserDeleted(userId);
+        changeFeed.publish(ChangeType.USER, userId);
+    }
+
+    /**
+     * Имя ограничения H2 дополняет схемой и суффиксом индекса, поэтому ищется как подстрока без учёта регистра
+     **/
+    private static boolean violatesEmailConstraint(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
     }
 }
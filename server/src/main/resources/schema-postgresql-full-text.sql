@@ -0,0 +1,7 @@
+-- Режим shareit.item-search=full-text. Выполняется после schema.sql (см. spring.sql.init.schema-locations),
+-- когда таблица items уже создана заново
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian', name), 'A') || setweight(to_tsvector('russian', description), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING GIN (search_vector);
@@ -0,0 +1,7 @@
+-- Режим shareit.item-search=like. Выполняется после schema.sql (см. spring.sql.init.schema-locations).
+-- Триграммные индексы повторяют выражения upper(...) запроса ItemRepository.search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (upper(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (upper(description) gin_trgm_ops);
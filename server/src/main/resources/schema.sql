@@ -3,24 +3,43 @@ drop table IF EXISTS items cascade;
 drop table IF EXISTS bookings cascade;
 drop table IF EXISTS comments cascade;
 drop table IF EXISTS item_requests cascade;
+drop sequence IF EXISTS users_seq;
+drop sequence IF EXISTS items_seq;
+drop sequence IF EXISTS bookings_seq;
+drop sequence IF EXISTS comments_seq;
+drop sequence IF EXISTS item_requests_seq;
+
+-- Hibernate берёт id из последовательностей блоками по 50 (pooled-lo), поэтому вставки можно отправлять пакетами
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('users_seq') NOT NULL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(512) NOT NULL UNIQUE
+    email VARCHAR(512) NOT NULL,
+    CONSTRAINT uq_users_email UNIQUE (email)
     );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('items_seq') NOT NULL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description TEXT NOT NULL,
     available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL REFERENCES users(id),
-    request_id BIGINT
+    request_id BIGINT,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    last_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_booking_start TIMESTAMP WITHOUT TIME ZONE
     );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('bookings_seq') NOT NULL PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
@@ -30,7 +49,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('comments_seq') NOT NULL PRIMARY KEY,
     text TEXT NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
     author_id BIGINT NOT NULL REFERENCES users(id),
@@ -38,8 +57,20 @@ CREATE TABLE IF NOT EXISTS comments (
     );
 
 CREATE TABLE IF NOT EXISTS item_requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('item_requests_seq') NOT NULL PRIMARY KEY,
     user_id BIGINT NOT NULL REFERENCES users(id),
     description TEXT NOT NULL,
     created_date TIMESTAMP WITHOUT TIME ZONE NOT NULL
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS item_requests_created_idx ON item_requests (created_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS items_next_booking_start_idx ON items (next_booking_start);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
@@ -0,0 +1,274 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.CommentRepository;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.RequestFeedCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов на один вызов эндпоинта не должно зависеть от количества бронирований и комментариев.
+ * Если маппинг снова начнёт подгружать вещи, арендаторов или авторов по одному, тест упадёт
+ **/
+@SpringBootTest(properties = {
+        "shareit.cache-metrics.enabled=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureMockMvc
+class StatementCountTest {
+    private static final int BOOKERS = 5;
+    private static final int REQUESTS = 5;
+    private static final int BATCH_USERS = 120;
+    private final List<Booking> bookings = new ArrayList<>();
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingPointers itemBookingPointers;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private RequestFeedCache requestFeedCache;
+    private User owner;
+    private User requester;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item secondItem = itemRepository.save(Item.builder()
+                .name("Отвёртка")
+                .description("Аккумуляторная отвёртка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        requester = userRepository.save(User.builder().name("requester").email("requester@mail.ru").build());
+        for (int i = 0; i < BOOKERS; i++) {
+            User booker = userRepository.save(User.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@mail.ru")
+                    .build());
+            Item bookedItem = i % 2 == 0 ? item : secondItem;
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(now.minusDays(20 - i))
+                    .end(now.minusDays(19 - i))
+                    .item(bookedItem)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build()));
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(now.plusDays(10 + i))
+                    .end(now.plusDays(11 + i))
+                    .item(bookedItem)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build()));
+            commentRepository.save(new Comment(null, "Отлично", bookedItem, booker, now));
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                    .user(requester)
+                    .description("Нужна вещь " + i)
+                    .created(now.minusHours(i))
+                    .build());
+            itemRepository.save(Item.builder()
+                    .name("Ответ " + i)
+                    .description("Вещь по запросу")
+                    .available(true)
+                    .owner(owner)
+                    .request(itemRequest.getId())
+                    .build());
+        }
+        requestFeedCache.clear();
+        itemBookingPointers.refresh(item, now);
+        itemRepository.save(item);
+        itemBookingPointers.refresh(secondItem, now);
+        itemRepository.save(secondItem);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getOwnerBookings() throws Exception {
+        assertStatements(2, get("/bookings/owner?state=ALL&from=0&size=20").header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void getBookings() throws Exception {
+        long bookerId = bookings.get(0).getBooker().getId();
+        assertStatements(2, get("/bookings?state=ALL&from=0&size=20").header("X-Sharer-User-Id", bookerId));
+    }
+
+    @Test
+    void getBooking() throws Exception {
+        assertStatements(2, get("/bookings/{id}", bookings.get(0).getId()).header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void confirmBooking() throws Exception {
+        assertStatements(5, patch("/bookings/{id}?approved=true", bookings.get(1).getId())
+                .header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void confirmBookings() throws Exception {
+        List<Long> waitingIds = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() == BookingStatus.WAITING) {
+                waitingIds.add(booking.getId());
+            }
+        }
+        //Вещи блокируются одним запросом, бронирования читаются одним запросом, статус меняется одним UPDATE,
+        //ссылки двух вещей - одним пакетом
+        assertStatements(5, patch("/bookings/batch?approved=true")
+                .header("X-Sharer-User-Id", owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(waitingIds.toString()));
+    }
+
+    @Test
+    void getUserItems() throws Exception {
+        assertStatements(3, get("/items?from=0&size=20").header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void getItemById() throws Exception {
+        //Вещь берётся из кэша второго уровня - остаются только комментарии
+        assertStatements(1, get("/items/{id}", item.getId()).header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void getOwnerRequests() throws Exception {
+        assertStatements(3, get("/requests").header("X-Sharer-User-Id", requester.getId()));
+        //Существование пользователя уже в кэше, список запросов - в кэше запросов, из базы читаются только ответы
+        assertStatements(1, get("/requests").header("X-Sharer-User-Id", requester.getId()));
+    }
+
+    @Test
+    void unknownUserIsCheckedOnce() throws Exception {
+        long unknownId = requester.getId() + 1000;
+        assertStatements(1, get("/requests").header("X-Sharer-User-Id", unknownId), status().isNotFound());
+        assertStatements(0, get("/requests").header("X-Sharer-User-Id", unknownId), status().isNotFound());
+    }
+
+    @Test
+    void getUserRequests() throws Exception {
+        assertStatements(2, get("/requests/all?from=0&size=2").header("X-Sharer-User-Id", owner.getId()));
+        assertStatements(0, get("/requests/all?from=2&size=2").header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void getUserRequestsAfter() throws Exception {
+        assertStatements(2, get("/requests/all?size=2&after={after}", LocalDateTime.now() + ",0")
+                .header("X-Sharer-User-Id", owner.getId()));
+        assertStatements(0, get("/requests/all?size=2&after={after}", LocalDateTime.now().minusHours(1) + ",0")
+                .header("X-Sharer-User-Id", owner.getId()));
+    }
+
+    @Test
+    void saveAllIsBatched() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < BATCH_USERS; i++) {
+            users.add(User.builder().name("user" + i).email("batch" + i + "@mail.ru").build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.saveAll(users);
+
+        //На каждые 50 строк - не больше одного обращения к последовательности и одного пакета вставок
+        long batches = (BATCH_USERS + 49) / 50;
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= batches * 2 + 1, "Вставки не собраны в пакеты: " + statements + " запросов");
+    }
+
+    @Test
+    void importItemsIsBatched() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 1; i <= BATCH_USERS; i++) {
+            rows.append(String.format(
+                    "{\"line\":%d,\"name\":\"item%d\",\"description\":\"d\",\"available\":true}%n", i, i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(rows.toString()))
+                .andExpect(status().isOk());
+
+        //Проверка владельца, затем на каждые 50 строк - не больше одного обращения к последовательности и одного пакета
+        long batches = (BATCH_USERS + 49) / 50;
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= batches * 2 + 1, "Вставки не собраны в пакеты: " + statements + " запросов");
+        assertEquals(BATCH_USERS + 2L + REQUESTS, itemRepository.count());
+    }
+
+    private void assertStatements(long expected, RequestBuilder request) throws Exception {
+        assertStatements(expected, request, status().isOk());
+    }
+
+    private void assertStatements(long expected, RequestBuilder request, ResultMatcher result) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mvc.perform(request).andExpect(result);
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
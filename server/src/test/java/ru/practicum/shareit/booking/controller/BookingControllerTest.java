@@ -7,8 +7,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -77,6 +79,46 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is("APPROVED")));
     }
 
+    @Test
+    @DisplayName("Создание нескольких бронирований")
+    void createBookings() throws Exception {
+        when(bookingService.createBookings(anyList(), anyLong()))
+                .thenReturn(List.of(BookingBatchResult.ok(bookingResponseDto),
+                        BookingBatchResult.failed(null, HttpStatus.NOT_FOUND, "Предмета с id = 2 не существует")));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(objectMapper.writeValueAsString(List.of(bookingRequestDto, bookingRequestDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1), Integer.class))
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[0].booking.status", is("WAITING")))
+                .andExpect(jsonPath("$[1].status", is(404)))
+                .andExpect(jsonPath("$[1].error", is("Предмета с id = 2 не существует")));
+    }
+
+    @Test
+    @DisplayName("Подтверждение нескольких бронирований")
+    void confirmBookings() throws Exception {
+        when(bookingService.confirmBookings(List.of(1L, 2L), true, 1L))
+                .thenReturn(List.of(BookingBatchResult.ok(bookingResponseDto),
+                        BookingBatchResult.failed(2L, HttpStatus.BAD_REQUEST, "Вещь уже забронирована.")));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("approved", "true")
+                        .content("[1,2]")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[1].bookingId", is(2), Integer.class))
+                .andExpect(jsonPath("$[1].status", is(400)));
+    }
+
     @Test
     @DisplayName("Получение бронирования")
     void getBooking() throws Exception {
@@ -107,6 +149,42 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(1), Integer.class));
     }
 
+    @Test
+    @DisplayName("Получение забронированных предметов после курсора")
+    void getBookingsAfter() throws Exception {
+        List<BookingResponseDto> bookings = List.of(bookingResponseDto);
+        when(bookingService.getBookingsAfter(anyString(), anyLong(), anyString(), anyInt()))
+                .thenReturn(bookings);
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("after", "2023-06-15T10:10:00,5")
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1), Integer.class));
+    }
+
+    @Test
+    @DisplayName("Получение списка бронирования для предметов пользователя после курсора")
+    void getOwnerBookingsAfter() throws Exception {
+        List<BookingResponseDto> bookings = List.of(bookingResponseDto);
+        when(bookingService.getOwnerBookingsAfter(anyString(), anyLong(), anyString(), anyInt()))
+                .thenReturn(bookings);
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("after", "2023-06-15T10:10:00,5")
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1), Integer.class));
+    }
+
     @DisplayName("Получение списка броинрования для предметов пользователя")
     @Test
     void getOwnerBookings() throws Exception {
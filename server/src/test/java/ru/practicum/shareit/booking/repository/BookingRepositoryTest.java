@@ -1,15 +1,19 @@
 package ru.practicum.shareit.booking.repository;
 
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -68,89 +72,13 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByBookerIdAndStartIsBeforeAndEndIsAfter() {
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(
-                booker.getId(),
-                LocalDateTime.of(2023, 6, 15, 12, 10),
-                LocalDateTime.of(2023, 6, 15, 12, 10),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
-
-    @Test
-    void findAllByBookerIdAndEndIsBefore() {
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndEndIsBefore(
-                booker.getId(), LocalDateTime.of(2023, 7, 28, 10, 10),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
-
-    @Test
-    void findAllByBookerIdAndStartIsAfter() {
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStartIsAfter(
-                booker.getId(), LocalDateTime.of(2023, 5, 28, 10, 10),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
-
-    @Test
-    void findAllByBookerIdAndStatus() {
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStatus(
-                booker.getId(), BookingStatus.WAITING,
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
-
-    @Test
-    void findAllByItemOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerId(
-                owner.getId(),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
+    void findLastBookings() {
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
 
-    @Test
-    void findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 15, 12, 10),
-                LocalDateTime.of(2023, 6, 15, 12, 10),
-                Pageable.unpaged()).getContent();
+        List<Booking> bookings = bookingRepository.findLastBookings(
+                List.of(item.getId()),
+                LocalDateTime.of(2023, 6, 17, 10, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), booking.getId());
@@ -159,46 +87,20 @@ class BookingRepositoryTest {
         assertEquals(bookings.get(0).getStart(), booking.getStart());
         assertEquals(bookings.get(0).getEnd(), booking.getEnd());
         assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
 
-    @Test
-    void findAllByItemOwnerIdAndEndIsBefore() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndEndIsBefore(
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 17, 10, 10),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
+        assertEquals(0, bookingRepository.findLastBookings(List.of(item.getId()), booking.getStart()).size());
+        assertEquals(0, bookingRepository.findLastBookings(
+                List.of(item.getId() + 1), LocalDateTime.of(2023, 6, 17, 10, 10)).size());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartIsAfter() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStartIsAfter(
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 14, 10, 10),
-                Pageable.unpaged()).getContent();
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
+    void findNextBookings() {
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
 
-    @Test
-    void findAllByItemOwnerIdAndStatus() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStatus(
-                owner.getId(),
-                BookingStatus.WAITING,
-                Pageable.unpaged()).getContent();
+        List<Booking> bookings = bookingRepository.findNextBookings(
+                List.of(item.getId()),
+                LocalDateTime.of(2023, 6, 14, 10, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), booking.getId());
@@ -207,38 +109,33 @@ class BookingRepositoryTest {
         assertEquals(bookings.get(0).getStart(), booking.getStart());
         assertEquals(bookings.get(0).getEnd(), booking.getEnd());
         assertEquals(bookings.get(0).getStatus(), booking.getStatus());
-    }
-
-    @Test
-    void findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc() {
-        Booking booking = bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(
-                item.getId(),
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 16, 10, 10),
-                BookingStatus.WAITING);
 
-        assertEquals(booking.getId(), this.booking.getId());
-        assertEquals(booking.getItem().getId(), item.getId());
-        assertEquals(booking.getBooker().getId(), booker.getId());
-        assertEquals(booking.getStart(), this.booking.getStart());
-        assertEquals(booking.getEnd(), this.booking.getEnd());
-        assertEquals(booking.getStatus(), this.booking.getStatus());
+        assertEquals(1, bookingRepository.findNextBookings(List.of(item.getId()), booking.getStart()).size());
+        assertEquals(0, bookingRepository.findNextBookings(
+                List.of(item.getId()), LocalDateTime.of(2023, 6, 17, 10, 10)).size());
     }
 
     @Test
-    void findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc() {
-        Booking booking = bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(
-                item.getId(),
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 14, 10, 10),
-                BookingStatus.WAITING);
-
-        assertEquals(booking.getId(), this.booking.getId());
-        assertEquals(booking.getItem().getId(), item.getId());
-        assertEquals(booking.getBooker().getId(), booker.getId());
-        assertEquals(booking.getStart(), this.booking.getStart());
-        assertEquals(booking.getEnd(), this.booking.getEnd());
-        assertEquals(booking.getStatus(), this.booking.getStatus());
+    void findLastAndNextBookingsWithSameStart() {
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
+        Booking sameStart = bookingRepository.save(Booking.builder()
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        List<Booking> last = bookingRepository.findLastBookings(
+                List.of(item.getId()), LocalDateTime.of(2023, 6, 17, 10, 10));
+        List<Booking> next = bookingRepository.findNextBookings(
+                List.of(item.getId()), LocalDateTime.of(2023, 6, 14, 10, 10));
+
+        assertEquals(1, last.size());
+        assertEquals(sameStart.getId(), last.get(0).getId());
+        assertEquals(1, next.size());
+        assertEquals(booking.getId(), next.get(0).getId());
     }
 
     @Test
@@ -258,65 +155,118 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAll() {
-        List<Booking> bookings = bookingRepository.findAll(Pageable.unpaged()).getContent();
+    void findAllByItemIdAndStatusInAndEndIsAfter() {
+        List<Booking> bookings = bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(
+                item.getId(),
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED),
+                LocalDateTime.of(2023, 6, 15, 12, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
+
+        bookings = bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(
+                item.getId(),
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED),
+                LocalDateTime.of(2023, 6, 16, 10, 10));
+
+        assertEquals(bookings.size(), 0);
     }
 
     @Test
-    void findLastBookings() {
-        booking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(booking);
+    void findBookingsByBooker() {
+        LocalDateTime now = LocalDateTime.of(2023, 6, 15, 12, 10);
 
-        List<Booking> bookings = bookingRepository.findLastBookings(
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 17, 10, 10));
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(
+                ExpressionUtils.allOf(
+                        BookingPredicates.byBooker(booker.getId()),
+                        BookingPredicates.byState("CURRENT", now)),
+                0, 10);
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), booking.getId());
         assertEquals(bookings.get(0).getItem().getId(), item.getId());
+        assertEquals(bookings.get(0).getItem().getName(), item.getName());
         assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
+        assertEquals(bookings.get(0).getBooker().getEmail(), booker.getEmail());
         assertEquals(bookings.get(0).getStart(), booking.getStart());
         assertEquals(bookings.get(0).getEnd(), booking.getEnd());
         assertEquals(bookings.get(0).getStatus(), booking.getStatus());
 
-        booking.setStatus(BookingStatus.WAITING);
-        bookingRepository.save(booking);
+        assertEquals(1, findBookings(BookingPredicates.byBooker(booker.getId()), "ALL", now));
+        assertEquals(0, findBookings(BookingPredicates.byBooker(booker.getId()), "PAST", now));
+        assertEquals(0, findBookings(BookingPredicates.byBooker(booker.getId()), "FUTURE", now));
+        assertEquals(1, findBookings(BookingPredicates.byBooker(booker.getId()), "WAITING", now));
+        assertEquals(0, findBookings(BookingPredicates.byBooker(booker.getId()), "REJECTED", now));
+        assertEquals(0, findBookings(BookingPredicates.byBooker(owner.getId()), "ALL", now));
     }
 
     @Test
-    void findNextBooking() {
-        booking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(booking);
+    void findBookingsByOwner() {
+        LocalDateTime now = LocalDateTime.of(2023, 6, 15, 12, 10);
+
+        assertEquals(1, findBookings(BookingPredicates.byOwner(owner.getId()), "ALL", now));
+        assertEquals(1, findBookings(BookingPredicates.byOwner(owner.getId()), "CURRENT", now));
+        assertEquals(0, findBookings(BookingPredicates.byOwner(owner.getId()), "PAST", now));
+        assertEquals(1, findBookings(BookingPredicates.byOwner(owner.getId()), "PAST", now.plusDays(2)));
+        assertEquals(1, findBookings(BookingPredicates.byOwner(owner.getId()), "FUTURE", now.minusDays(2)));
+        assertEquals(1, findBookings(BookingPredicates.byOwner(owner.getId()), "WAITING", now));
+        assertEquals(0, findBookings(BookingPredicates.byOwner(owner.getId()), "REJECTED", now));
+        assertEquals(0, findBookings(BookingPredicates.byOwner(booker.getId()), "ALL", now));
+    }
 
-        List<Booking> bookings = bookingRepository.findNextBooking(
-                owner.getId(),
-                LocalDateTime.of(2023, 6, 14, 10, 10));
+    @Test
+    void findBookingsWithOffset() {
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(booking.getStart().minusDays(5))
+                .end(booking.getEnd().minusDays(5))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(
+                BookingPredicates.byOwner(owner.getId()), 1, 1);
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
-        assertEquals(bookings.get(0).getItem().getId(), item.getId());
-        assertEquals(bookings.get(0).getBooker().getId(), booker.getId());
-        assertEquals(bookings.get(0).getStart(), booking.getStart());
-        assertEquals(bookings.get(0).getEnd(), booking.getEnd());
-        assertEquals(bookings.get(0).getStatus(), booking.getStatus());
+        assertEquals(bookings.get(0).getId(), earlier.getId());
+    }
 
-        booking.setStatus(BookingStatus.WAITING);
-        bookingRepository.save(booking);
+    @Test
+    void findBookingsAfter() {
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(booking.getStart().minusDays(5))
+                .end(booking.getEnd().minusDays(5))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        Booking sameStart = bookingRepository.save(Booking.builder()
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<BookingResponseDto> firstPage = bookingRepository.findBookingsAfter(
+                BookingPredicates.byBooker(booker.getId()), null, 2);
+        assertEquals(List.of(sameStart.getId(), booking.getId()),
+                List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+
+        KeysetCursor cursor = new KeysetCursor(firstPage.get(1).getStart(), firstPage.get(1).getId());
+        List<BookingResponseDto> secondPage = bookingRepository.findBookingsAfter(
+                BookingPredicates.byOwner(owner.getId()), cursor, 2);
+        assertEquals(1, secondPage.size());
+        assertEquals(earlier.getId(), secondPage.get(0).getId());
+
+        List<BookingResponseDto> waiting = bookingRepository.findBookingsAfter(
+                BookingPredicates.byState("WAITING", LocalDateTime.now()), cursor, 2);
+        assertEquals(0, waiting.size());
     }
 
     @Test
-    void findAllByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllByBookerId(
-                booker.getId(),
-                Pageable.unpaged()).getContent();
+    void findAll() {
+        List<Booking> bookings = bookingRepository.findAll(Pageable.unpaged()).getContent();
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), booking.getId());
@@ -326,4 +276,9 @@ class BookingRepositoryTest {
         assertEquals(bookings.get(0).getEnd(), booking.getEnd());
         assertEquals(bookings.get(0).getStatus(), booking.getStatus());
     }
-}
\ No newline at end of file
+
+    private int findBookings(Predicate user, String state, LocalDateTime now) {
+        return bookingRepository.findBookings(
+                ExpressionUtils.allOf(user, BookingPredicates.byState(state, now)), 0, 10).size();
+    }
+}
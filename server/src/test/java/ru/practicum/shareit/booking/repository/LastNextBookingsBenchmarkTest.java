@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение запросов последних и следующих бронирований на 1 000 000 бронирований одного владельца (1000 вещей):
+ * прежний запрос по всем бронированиям владельца с соединением по максимуму start_date,
+ * ROW_NUMBER() по вещам страницы и запросы репозитория - первая строка индекса для каждой вещи страницы.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=LastNextBookingsBenchmarkTest
+ **/
+@Slf4j
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LastNextBookingsBenchmarkTest {
+    private static final int ITEMS = 1_000;
+    private static final int BOOKINGS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 10;
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final String LEGACY_LAST_BOOKINGS = "SELECT b1.* " +
+            "FROM bookings b1 " +
+            "JOIN (" +
+            "SELECT item_id, MAX(start_date) as max_start_date " +
+            "FROM BOOKINGS b2 " +
+            "WHERE b2.ID in(" +
+            "SELECT b3.id FROM BOOKINGS b3 " +
+            "JOIN ITEMS i ON I.ID = B3.ITEM_ID " +
+            "WHERE i.OWNER_ID = ? " +
+            "AND b3.STATUS = 'APPROVED' " +
+            "AND b3.START_DATE < ?) " +
+            "GROUP BY ITEM_ID) b2 " +
+            "ON b1.item_id = b2.item_id AND b1.start_date = b2.max_start_date";
+    private static final String LEGACY_NEXT_BOOKINGS = "SELECT b1.* " +
+            "FROM bookings b1 " +
+            "JOIN (" +
+            "SELECT item_id, MIN(start_date) as min_start_date " +
+            "FROM BOOKINGS b2 " +
+            "WHERE b2.ID in(" +
+            "SELECT b3.id FROM BOOKINGS b3 " +
+            "JOIN ITEMS i ON I.ID = B3.ITEM_ID " +
+            "WHERE i.OWNER_ID = ? " +
+            "AND b3.STATUS = 'APPROVED' " +
+            "AND b3.START_DATE >= ?) " +
+            "GROUP BY ITEM_ID) b2 " +
+            "ON b1.item_id = b2.item_id AND b1.start_date = b2.min_start_date";
+    private static final String ROW_NUMBER_LAST_BOOKINGS = "SELECT b.id, b.start_date, b.end_date, b.item_id, " +
+            "b.booker_id, b.status " +
+            "FROM (SELECT bk.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY bk.item_id ORDER BY bk.start_date DESC, bk.id DESC) AS rn " +
+            "FROM bookings bk " +
+            "WHERE bk.item_id IN (?1) " +
+            "AND bk.status = 'APPROVED' " +
+            "AND bk.start_date < ?2) b " +
+            "WHERE b.rn = 1";
+    private static final String ROW_NUMBER_NEXT_BOOKINGS = "SELECT b.id, b.start_date, b.end_date, b.item_id, " +
+            "b.booker_id, b.status " +
+            "FROM (SELECT bk.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY bk.item_id ORDER BY bk.start_date, bk.id) AS rn " +
+            "FROM bookings bk " +
+            "WHERE bk.item_id IN (?1) " +
+            "AND bk.status = 'APPROVED' " +
+            "AND bk.start_date >= ?2) b " +
+            "WHERE b.rn = 1";
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    private long ownerId;
+    private List<Long> pageItemIds;
+    private final LocalDateTime now = BASE.plusMinutes(BOOKINGS / 2);
+
+    @BeforeEach
+    void fillBookings() {
+        entityManager.createNativeQuery("INSERT INTO users (id, name, email) " +
+                "VALUES (nextval('users_seq'), 'owner', 'bench-owner@mail.ru'), " +
+                "(nextval('users_seq'), 'booker', 'bench-booker@mail.ru')").executeUpdate();
+        ownerId = ((Number) entityManager.createNativeQuery(
+                "SELECT id FROM users WHERE email = 'bench-owner@mail.ru'").getSingleResult()).longValue();
+        long bookerId = ((Number) entityManager.createNativeQuery(
+                "SELECT id FROM users WHERE email = 'bench-booker@mail.ru'").getSingleResult()).longValue();
+
+        entityManager.createNativeQuery("INSERT INTO items (id, name, description, available, owner_id) " +
+                        "SELECT nextval('items_seq'), CONCAT('item', x), 'description', TRUE, ?1 " +
+                        "FROM SYSTEM_RANGE(1, CAST(?2 AS INT))")
+                .setParameter(1, ownerId)
+                .setParameter(2, ITEMS)
+                .executeUpdate();
+        List<?> itemIds = entityManager.createNativeQuery("SELECT id FROM items WHERE owner_id = ?1 ORDER BY id")
+                .setParameter(1, ownerId)
+                .getResultList();
+        long firstItemId = ((Number) itemIds.get(0)).longValue();
+        //id вещей идут с шагом последовательности
+        long itemIdStep = ((Number) itemIds.get(1)).longValue() - firstItemId;
+        pageItemIds = itemIds.stream()
+                .limit(PAGE_SIZE)
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+
+        //Каждую минуту начинается новое бронирование, вещи чередуются, каждое седьмое отклонено
+        entityManager.createNativeQuery("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "SELECT nextval('bookings_seq'), DATEADD('MINUTE', x, CAST(?1 AS TIMESTAMP)), " +
+                        "DATEADD('MINUTE', x + 1, CAST(?1 AS TIMESTAMP)), " +
+                        "CAST(?2 AS BIGINT) + MOD(x, CAST(?3 AS INT)) * CAST(?6 AS BIGINT), ?4, " +
+                        "CASE WHEN MOD(x, 7) = 0 THEN 'REJECTED' ELSE 'APPROVED' END " +
+                        "FROM SYSTEM_RANGE(1, CAST(?5 AS INT))")
+                .setParameter(1, BASE)
+                .setParameter(2, firstItemId)
+                .setParameter(3, ITEMS)
+                .setParameter(4, bookerId)
+                .setParameter(5, BOOKINGS)
+                .setParameter(6, itemIdStep)
+                .executeUpdate();
+        entityManager.clear();
+        assertEquals((long) BOOKINGS, ((Number) entityManager
+                .createNativeQuery("SELECT COUNT(*) FROM bookings").getSingleResult()).longValue());
+    }
+
+    @Test
+    void compareLastAndNextBookingQueries() {
+        Map<Long, Long> legacyLast = pageOnly(legacy(LEGACY_LAST_BOOKINGS));
+        Map<Long, Long> legacyNext = pageOnly(legacy(LEGACY_NEXT_BOOKINGS));
+        assertEquals(legacyLast, pageOnly(bookingRepository.findLastBookings(pageItemIds, now)));
+        assertEquals(legacyNext, pageOnly(bookingRepository.findNextBookings(pageItemIds, now)));
+        assertEquals(legacyLast, pageOnly(rowNumber(ROW_NUMBER_LAST_BOOKINGS)));
+        assertEquals(legacyNext, pageOnly(rowNumber(ROW_NUMBER_NEXT_BOOKINGS)));
+        assertEquals(PAGE_SIZE, legacyLast.size());
+
+        double legacyMs = measure(() -> legacy(LEGACY_LAST_BOOKINGS).size() + legacy(LEGACY_NEXT_BOOKINGS).size());
+        double rowNumberMs = measure(() -> rowNumber(ROW_NUMBER_LAST_BOOKINGS).size() +
+                rowNumber(ROW_NUMBER_NEXT_BOOKINGS).size());
+        double repositoryMs = measure(() -> bookingRepository.findLastBookings(pageItemIds, now).size() +
+                bookingRepository.findNextBookings(pageItemIds, now).size());
+
+        log.info("{} бронирований, {} вещей, страница {}: прежние запросы {} мс, ROW_NUMBER {} мс, репозиторий {} мс",
+                BOOKINGS, ITEMS, PAGE_SIZE, format(legacyMs), format(rowNumberMs), format(repositoryMs));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Booking> legacy(String sql) {
+        return entityManager.createNativeQuery(sql, Booking.class)
+                .setParameter(1, ownerId)
+                .setParameter(2, now)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Booking> rowNumber(String sql) {
+        return entityManager.createNativeQuery(sql, Booking.class)
+                .setParameter(1, pageItemIds)
+                .setParameter(2, now)
+                .getResultList();
+    }
+
+    private String format(double ms) {
+        return String.format("%.1f", ms);
+    }
+
+    private Map<Long, Long> pageOnly(List<Booking> bookings) {
+        return bookings.stream()
+                .filter(booking -> pageItemIds.contains(booking.getItem().getId()))
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Booking::getId));
+    }
+
+    private double measure(Supplier<Integer> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+            entityManager.clear();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+            entityManager.clear();
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+    }
+}
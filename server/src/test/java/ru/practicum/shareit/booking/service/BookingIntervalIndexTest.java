@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final Item item = Item.builder().id(1L).build();
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void isFreeLoadsItemBookingsOnce() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(booking(1L, start, start.plusDays(2))));
+
+        assertFalse(index.isFree(item.getId(), start.plusDays(1), start.plusDays(3)));
+        assertFalse(index.isFree(item.getId(), start.minusDays(1), start.plusHours(1)));
+        assertTrue(index.isFree(item.getId(), start.minusDays(1), start));
+        assertTrue(index.isFree(item.getId(), start.plusDays(2), start.plusDays(3)));
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndIsAfter(anyLong(), any(), any());
+    }
+
+    @Test
+    void addAndRemove() {
+        Booking booking = booking(1L, start, start.plusDays(2));
+
+        index.add(booking);
+        assertFalse(index.isFree(item.getId(), start.plusHours(1), start.plusHours(2)));
+
+        index.remove(booking);
+        assertTrue(index.isFree(item.getId(), start.plusHours(1), start.plusHours(2)));
+    }
+
+    @Test
+    void removeKeepsOtherBookingWithSameStart() {
+        index.add(booking(1L, start, start.plusDays(2)));
+
+        index.remove(booking(2L, start, start.plusDays(2)));
+
+        assertFalse(index.isFree(item.getId(), start, start.plusDays(1)));
+    }
+
+    @Test
+    void concurrentReservationsOfSameItemDoNotOverlap() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                return index.lockItem(item.getId(), () -> {
+                    if (!index.isFree(item.getId(), start, start.plusDays(1))) {
+                        return false;
+                    }
+                    index.add(booking(ids.incrementAndGet(), start, start.plusDays(1)));
+                    return true;
+                });
+            }));
+        }
+        ready.countDown();
+
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                reserved++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, reserved);
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -17,6 +19,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -47,6 +50,53 @@ class BookingServiceImplIntegrationTest {
         bookingRepository.save(secondBooking);
     }
 
+    @Test
+    void createBookings() {
+        User booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        List<BookingRequestDto> requests = List.of(
+                new BookingRequestDto(item.getId(), start, start.plusDays(1)),
+                new BookingRequestDto(item.getId(), start.plusDays(1), start.plusDays(2)),
+                new BookingRequestDto(item.getId(), start.plusHours(1), start.plusHours(2)));
+
+        List<BookingBatchResult> results = bookingService.createBookings(requests, booker.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(400, results.get(2).getStatus());
+        assertEquals(BookingStatus.WAITING,
+                bookingRepository.findById(results.get(1).getBookingId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void confirmBookings() {
+        User booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Booking waiting = bookingRepository.save(Booking.builder().booker(booker).item(item)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(5)).end(LocalDateTime.now().plusDays(6)).build());
+
+        List<BookingBatchResult> results = bookingService.confirmBookings(
+                List.of(waiting.getId(), secondBooking.getId()), true, user.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals("Вещь уже забронирована.", results.get(1).getError());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.REJECTED,
+                bookingRepository.findById(secondBooking.getId()).orElseThrow().getStatus());
+        assertEquals(waiting.getId(), itemRepository.findById(item.getId()).orElseThrow()
+                .getNextBooking().getBookingId());
+    }
+
+    @Test
+    void rejectBookings() {
+        List<BookingBatchResult> results = bookingService.confirmBookings(
+                List.of(booking.getId()), false, user.getId());
+
+        assertEquals(BookingStatus.REJECTED, results.get(0).getBooking().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
     @Test
     void getBookings() {
         Collection<BookingResponseDto> userBookings = bookingService.getBookings("ALL", user.getId(), 0, 10);
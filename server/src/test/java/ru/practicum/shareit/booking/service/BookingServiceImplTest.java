@@ -6,8 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
@@ -18,23 +17,28 @@ import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -90,12 +94,15 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    private final ChangeFeed changeFeed = new ChangeFeed(100);
     private Booking booking1;
     private Booking booking2;
 
     @BeforeEach
     public void setUp() {
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository,
+                new BookingIntervalIndex(bookingRepository), new ItemBookingPointers(itemRepository, bookingRepository, changeFeed),
+                new UserExistenceCache(userRepository, 100, Duration.ofMinutes(1)), changeFeed);
         booking1 = BookingMapper.toBooking(bookingDto1, item1, booker1);
         booking1.setId(1L);
         booking2 = BookingMapper.toBooking(bookingDto2, item2, booker2);
@@ -125,6 +132,46 @@ class BookingServiceImplTest {
         verify(bookingRepository, times(1)).save(Mockito.any(Booking.class));
     }
 
+    @Test
+    void createBookingWithOverlappingBooking() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(booking1));
+        BookingRequestDto overlappingDto = new BookingRequestDto(
+                item1.getId(),
+                bookingDto1.getStart().plusHours(1),
+                bookingDto1.getEnd().plusHours(1)
+        );
+
+        Exception exception = assertThrows(
+                ItemUnavailableException.class, () -> bookingService.createBooking(overlappingDto, booker1.getId()));
+
+        assertEquals("Вещь уже забронирована на выбранные даты.", exception.getMessage());
+        verify(bookingRepository, never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createBookingRightAfterExistingBooking() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(booking1));
+        BookingRequestDto nextDto = new BookingRequestDto(
+                item1.getId(),
+                bookingDto1.getEnd(),
+                bookingDto1.getEnd().plusDays(1)
+        );
+        Booking nextBooking = BookingMapper.toBooking(nextDto, item1, booker1);
+        nextBooking.setId(3L);
+        when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(nextBooking);
+
+        BookingResponseDto bookingResponseDto = bookingService.createBooking(nextDto, booker1.getId());
+
+        assertEquals(nextBooking.getId(), bookingResponseDto.getId());
+        verify(bookingRepository, times(1)).save(Mockito.any(Booking.class));
+    }
+
     @Test
     void createBookingWithWrongBookerId() {
         when(userRepository.findById(10L))
@@ -187,7 +234,7 @@ class BookingServiceImplTest {
 
     @Test
     void confirmBooking() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
         when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(booking1);
 
@@ -203,15 +250,16 @@ class BookingServiceImplTest {
         assertEquals(booking1.getEnd(), bookingResponseDto.getEnd());
         assertEquals(ItemMapper.toItemDto(booking1.getItem()), bookingResponseDto.getItem());
         assertEquals(UserMapper.toUserDto(booking1.getBooker()), bookingResponseDto.getBooker());
+        assertEquals(booking1.getId(), item1.getNextBooking().getBookingId());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, times(1)).save(Mockito.any(Booking.class));
     }
 
     @Test
     void confirmBookingWithoutBooking() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
 
         when(bookingRepository.findById(10L))
                 .thenReturn(Optional.empty());
@@ -224,14 +272,14 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(Mockito.any(Booking.class));
     }
 
     @Test
     void confirmBookingAlreadyIsBooking() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         booking1.setStatus(BookingStatus.APPROVED);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
 
@@ -243,14 +291,14 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(Mockito.any(Booking.class));
     }
 
     @Test
     void confirmBookingWithUserNotOwner() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
 
         Exception exception = assertThrows(
@@ -261,14 +309,127 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(Mockito.any(Booking.class));
     }
 
     @Test
-    void getBooking() {
+    void createBookings() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item1, item2));
+        when(bookingRepository.save(Mockito.any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(10L);
+            return booking;
+        });
+        BookingRequestDto unknownItemDto = new BookingRequestDto(99L, bookingDto1.getStart(), bookingDto1.getEnd());
+        BookingRequestDto overlappingDto = new BookingRequestDto(
+                item1.getId(), bookingDto1.getStart().plusHours(1), bookingDto1.getEnd().plusHours(1));
+
+        List<BookingBatchResult> results = bookingService.createBookings(
+                List.of(bookingDto1, unknownItemDto, bookingDto2, overlappingDto), booker1.getId());
+
+        assertEquals(4, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getBookingId());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals("Предмета с id = 99 не существует", results.get(1).getError());
+        assertEquals(400, results.get(2).getStatus());
+        assertEquals("Статус данной вещи недоступен.", results.get(2).getError());
+        assertEquals(400, results.get(3).getStatus());
+        assertEquals("Вещь уже забронирована на выбранные даты.", results.get(3).getError());
+
+        verify(userRepository, times(1)).findById(anyLong());
+        verify(itemRepository, times(1)).findAllById(anySet());
+        verify(bookingRepository, times(1)).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createBookingsOwnItem() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item1));
+
+        List<BookingBatchResult> results = bookingService.createBookings(List.of(bookingDto1), owner1.getId());
+
+        assertEquals(404, results.get(0).getStatus());
+        assertEquals("Пользователь не может арендовать свою же вещь.", results.get(0).getError());
+        verify(bookingRepository, never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createBookingsWithWrongBookerId() {
+        when(userRepository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> bookingService.createBookings(List.of(bookingDto1), 10L));
+
+        verify(itemRepository, never()).findAllById(anySet());
+    }
+
+    @Test
+    void confirmBookings() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        Booking approvedBooking = BookingMapper.toBooking(bookingDto1, item1, booker1);
+        approvedBooking.setId(3L);
+        approvedBooking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(booking1, booking2, approvedBooking));
+
+        List<BookingBatchResult> results = bookingService.confirmBookings(
+                List.of(booking1.getId(), booking2.getId(), approvedBooking.getId(), 10L, booking1.getId()),
+                true, owner1.getId());
+
+        assertEquals(4, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(String.format("Пользователь с id = %s не является владельцем вещи, которую бронируют.",
+                owner1.getId()), results.get(1).getError());
+        assertEquals(400, results.get(2).getStatus());
+        assertEquals("Вещь уже забронирована.", results.get(2).getError());
+        assertEquals(404, results.get(3).getStatus());
+        assertEquals(10L, results.get(3).getBookingId());
+        assertEquals(booking1.getId(), item1.getNextBooking().getBookingId());
+
+        verify(bookingRepository, times(1)).findAllByIdIn(anyCollection());
+        verify(bookingRepository, times(1)).updateStatus(List.of(booking1), BookingStatus.APPROVED);
+        verify(bookingRepository, never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void confirmBookingsAlreadyDecided() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        booking1.setStatus(BookingStatus.REJECTED);
+        Booking approvedBooking = BookingMapper.toBooking(bookingDto1, item1, booker1);
+        approvedBooking.setId(3L);
+        approvedBooking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(booking1, approvedBooking));
+
+        List<BookingBatchResult> results = bookingService.confirmBookings(
+                List.of(booking1.getId(), approvedBooking.getId()), true, owner1.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals("Вещь уже забронирована.", results.get(0).getError());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals("Вещь уже забронирована.", results.get(1).getError());
+        verify(bookingRepository, times(1)).updateStatus(List.of(), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void rejectBookings() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(booking1));
+
+        List<BookingBatchResult> results = bookingService.confirmBookings(
+                List.of(booking1.getId()), false, owner1.getId());
+
+        assertEquals(BookingStatus.REJECTED, results.get(0).getBooking().getStatus());
+        verify(bookingRepository, times(1)).updateStatus(List.of(booking1), BookingStatus.REJECTED);
+    }
+
+    @Test
+    void getBooking() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
 
         BookingResponseDto bookingResponseDto = bookingService.getBooking(booking1.getId(), owner1.getId());
@@ -280,13 +441,13 @@ class BookingServiceImplTest {
         assertEquals(ItemMapper.toItemDto(booking1.getItem()), bookingResponseDto.getItem());
         assertEquals(UserMapper.toUserDto(booking1.getBooker()), bookingResponseDto.getBooker());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void getBookingWithoutBooking() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
 
         when(bookingRepository.findById(10L))
                 .thenReturn(Optional.empty());
@@ -299,14 +460,14 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(Mockito.any(Booking.class));
     }
 
     @Test
     void getBookingWithUserNotOwnerOrBooker() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
 
         Exception exception = assertThrows(
@@ -317,43 +478,40 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void getBookingsWithAllState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Arrays.asList(booking1, booking2);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(
+                        BookingMapper.toBookingResponseDto(booking1), BookingMapper.toBookingResponseDto(booking2)));
 
         List<BookingResponseDto> response = bookingService.getBookings("ALL", booker1.getId(), 0, 10);
 
         assertEquals(2, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerId(anyLong(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getBookingsWithCurrentState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(
-                anyLong(), any(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getBookings("CURRENT", booker1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStartIsBeforeAndEndIsAfter(
-                anyLong(), any(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getBookingsWithUnknownState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         String unknownState = "UNKNOWN";
 
         Exception exception = assertThrows(
@@ -365,165 +523,192 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
-        // Ни один из методов репозитория не должен вызываться
-        verify(bookingRepository, never()).findAllByBookerId(anyLong(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfter(anyLong(), any(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        // Репозиторий не должен вызываться
+        verify(bookingRepository, never()).findBookings(any(), anyLong(), anyInt());
     }
 
     @Test
     void getBookingsWithPastState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerIdAndEndIsBefore(
-                anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getBookings("PAST", booker1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndEndIsBefore(
-                anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getBookingsWithFutureState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerIdAndStartIsAfter(
-                anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getBookings("FUTURE", booker1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStartIsAfter(
-                anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getBookingsWithWaitingState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                anyLong(), eq(BookingStatus.WAITING), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getBookings("WAITING", booker1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStatus(
-                anyLong(), eq(BookingStatus.WAITING), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getBookingsWithRejectedState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                anyLong(), eq(BookingStatus.REJECTED), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getBookings("REJECTED", booker1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStatus(
-                anyLong(), eq(BookingStatus.REJECTED), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithAllState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerId(anyLong(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("ALL", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerId(anyLong(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithCurrentState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-                anyLong(), any(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("CURRENT", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-                anyLong(), any(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithPastState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerIdAndEndIsBefore(anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("PAST", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndEndIsBefore(anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithFutureState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerIdAndStartIsAfter(anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("FUTURE", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStartIsAfter(anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithWaitingState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("WAITING", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStatus(anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
     }
 
     @Test
     void getOwnerBookingsWithRejectedState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
-        List<Booking> bookings = Collections.singletonList(booking1);
-        Page<Booking> page = new PageImpl<>(bookings);
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(anyLong(), any(), any())).thenReturn(page);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
 
         List<BookingResponseDto> response = bookingService.getOwnerBookings("REJECTED", owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStatus(anyLong(), any(), any());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(), eq(0L), eq(10));
+    }
+
+    @Test
+    void getBookingsPageOffset() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookings(any(), anyLong(), anyInt()))
+                .thenReturn(List.of());
+
+        bookingService.getBookings("ALL", booker1.getId(), 25, 10);
+
+        verify(bookingRepository, times(1)).findBookings(any(), eq(20L), eq(10));
+    }
+
+    @Test
+    void getBookingsAfterCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookingsAfter(any(), any(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
+
+        List<BookingResponseDto> response = bookingService.getBookingsAfter(
+                "WAITING", booker1.getId(), "2023-06-15T10:10:00,5", 10);
+
+        assertEquals(1, response.size());
+        verify(bookingRepository, times(1)).findBookingsAfter(
+                any(), eq(new KeysetCursor(LocalDateTime.of(2023, 6, 15, 10, 10), 5L)), eq(10));
+    }
+
+    @Test
+    void getOwnerBookingsAfterCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findBookingsAfter(any(), any(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking1)));
+
+        List<BookingResponseDto> response = bookingService.getOwnerBookingsAfter(
+                "ALL", owner1.getId(), "2023-06-15T10:10:00,5", 10);
+
+        assertEquals(1, response.size());
+        verify(bookingRepository, times(1)).findBookingsAfter(any(), any(), eq(10));
+    }
+
+    @Test
+    void getBookingsAfterWrongCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookingsAfter("ALL", booker1.getId(), "abc", 10));
+
+        verify(bookingRepository, never()).findBookingsAfter(any(), any(), anyInt());
     }
 
     @Test
     void getOwnerBookingsWithInvalidState() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
 
         Exception exception = assertThrows(BookingValidationException.class,
                 () -> bookingService.getOwnerBookings("INVALID", owner1.getId(), 0, 10));
@@ -533,6 +718,6 @@ class BookingServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.change;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.change.controller.ChangeController;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.dto.ChangePage;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ChangeController.class)
+class ChangeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private ChangeFeed changeFeed;
+
+    @Test
+    void getChanges() throws Exception {
+        when(changeFeed.getChanges(3L, 100, Duration.ofMillis(500))).thenReturn(new ChangePage("e", 5, false,
+                List.of(new ChangeDto(4, ChangeType.ITEM, 7L), new ChangeDto(5, ChangeType.USER, null))));
+
+        mockMvc.perform(get("/changes")
+                        .param("after", "3")
+                        .param("limit", "100")
+                        .param("timeout", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.epoch", is("e")))
+                .andExpect(jsonPath("$.last", is(5)))
+                .andExpect(jsonPath("$.reset", is(false)))
+                .andExpect(jsonPath("$.changes[0].type", is("ITEM")))
+                .andExpect(jsonPath("$.changes[0].id", is(7)))
+                .andExpect(jsonPath("$.changes[1].id", nullValue()));
+    }
+
+    @Test
+    void getChangesWithoutAfter() throws Exception {
+        when(changeFeed.getChanges(null, 1000, Duration.ZERO)).thenReturn(new ChangePage("e", 9, false, List.of()));
+
+        mockMvc.perform(get("/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last", is(9)));
+    }
+
+    @Test
+    void getChangesTimeoutIsCapped() throws Exception {
+        when(changeFeed.getChanges(1L, 1000, Duration.ofSeconds(30))).thenReturn(new ChangePage("e", 1, false, List.of()));
+
+        mockMvc.perform(get("/changes")
+                        .param("after", "1")
+                        .param("timeout", "600000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last", is(1)));
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.change;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.dto.ChangePage;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+    private final ChangeFeed changeFeed = new ChangeFeed(3);
+
+    @Test
+    void getChangesWithoutAfterReturnsPosition() {
+        changeFeed.publish(ChangeType.USER, 1L);
+
+        ChangePage page = changeFeed.getChanges(null, 10, Duration.ZERO);
+
+        assertEquals(1, page.getLast());
+        assertFalse(page.isReset());
+        assertTrue(page.getChanges().isEmpty());
+        assertNotNull(page.getEpoch());
+    }
+
+    @Test
+    void getChangesAfter() {
+        changeFeed.publish(ChangeType.USER, 1L);
+        changeFeed.publish(ChangeType.ITEM, 2L);
+        changeFeed.publish(ChangeType.ITEM, null);
+
+        ChangePage page = changeFeed.getChanges(1L, 10, Duration.ZERO);
+
+        assertEquals(List.of(new ChangeDto(2, ChangeType.ITEM, 2L), new ChangeDto(3, ChangeType.ITEM, null)),
+                page.getChanges());
+        assertEquals(3, page.getLast());
+        assertFalse(page.isReset());
+    }
+
+    @Test
+    void getChangesIsLimited() {
+        changeFeed.publish(ChangeType.USER, 1L);
+        changeFeed.publish(ChangeType.USER, 2L);
+        changeFeed.publish(ChangeType.USER, 3L);
+
+        ChangePage page = changeFeed.getChanges(0L, 2, Duration.ZERO);
+
+        assertEquals(2, page.getChanges().size());
+        assertEquals(2, page.getLast());
+    }
+
+    @Test
+    void getChangesWithoutNewChangesReturnsEmptyPage() {
+        changeFeed.publish(ChangeType.USER, 1L);
+
+        ChangePage page = changeFeed.getChanges(1L, 10, Duration.ofMillis(10));
+
+        assertTrue(page.getChanges().isEmpty());
+        assertEquals(1, page.getLast());
+        assertFalse(page.isReset());
+    }
+
+    @Test
+    void getChangesAfterEvictedChangesIsReset() {
+        for (long id = 1; id <= 5; id++) {
+            changeFeed.publish(ChangeType.ITEM, id);
+        }
+
+        ChangePage page = changeFeed.getChanges(1L, 10, Duration.ZERO);
+
+        assertTrue(page.isReset());
+        assertEquals(5, page.getLast());
+        assertTrue(page.getChanges().isEmpty());
+        assertFalse(changeFeed.getChanges(2L, 10, Duration.ZERO).isReset());
+    }
+
+    @Test
+    void getChangesAfterUnknownPositionIsReset() {
+        assertTrue(changeFeed.getChanges(7L, 10, Duration.ZERO).isReset());
+    }
+
+    @Test
+    void getChangesWaitsForPublish() throws Exception {
+        CompletableFuture<ChangePage> page = CompletableFuture.supplyAsync(
+                () -> changeFeed.getChanges(0L, 10, Duration.ofSeconds(10)));
+        Thread.sleep(50);
+
+        changeFeed.publish(ChangeType.REQUEST, 4L);
+
+        assertEquals(List.of(new ChangeDto(1, ChangeType.REQUEST, 4L)), page.get().getChanges());
+    }
+
+    @Test
+    void publishSetsChangeSeqHeader() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        try {
+            changeFeed.publish(ChangeType.USER, 1L);
+            changeFeed.publish(ChangeType.ITEM, 1L);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertEquals("2", response.getHeader(ChangeFeed.CHANGE_SEQ_HEADER));
+    }
+
+    @Test
+    void expireAtSetsSmallestMaxAgeHeader() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        try {
+            changeFeed.expireAt(LocalDateTime.now().plusHours(2));
+            changeFeed.expireAt(LocalDateTime.now().plusHours(1));
+            changeFeed.expireAt(LocalDateTime.now().plusHours(3));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        long maxAge = Long.parseLong(response.getHeader(ChangeFeed.MAX_AGE_HEADER));
+        assertTrue(maxAge > Duration.ofMinutes(59).toMillis() && maxAge <= Duration.ofHours(1).toMillis());
+    }
+}
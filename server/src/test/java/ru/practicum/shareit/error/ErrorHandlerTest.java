@@ -15,6 +15,7 @@ import ru.practicum.shareit.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.booking.exception.BookingValidationException;
 import ru.practicum.shareit.booking.exception.ItemUnavailableException;
 import ru.practicum.shareit.booking.exception.UserNotOwnerBooking;
+import ru.practicum.shareit.change.controller.ChangeController;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
@@ -49,11 +50,13 @@ class ErrorHandlerTest {
     private BookingController bookingController;
     @MockBean
     private ItemRequestController itemRequestController;
+    @MockBean
+    private ChangeController changeController;
 
     //user
     @Test
     void handlerUserNotFoundException() throws Exception {
-        when(userController.getAllUsers())
+        when(userController.getAllUsers(isNull(), isNull(), isNull()))
                 .thenThrow(new UserNotFoundException("User not found"));
 
         mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
@@ -141,7 +144,7 @@ class ErrorHandlerTest {
 
     @Test
     void handlerBookingValidationException() throws Exception {
-        when(bookingController.getBookings(anyString(), anyLong(), anyInt(), anyInt()))
+        when(bookingController.getBookings(anyString(), anyLong(), anyInt(), anyInt(), isNull()))
                 .thenThrow(new BookingValidationException("validation exception"));
 
         mockMvc.perform(get("/bookings")
@@ -169,7 +172,7 @@ class ErrorHandlerTest {
 
     @Test
     void handlerIllegalArgumentException() throws Exception {
-        when(userController.getAllUsers())
+        when(userController.getAllUsers(isNull(), isNull(), isNull()))
                 .thenThrow(new IllegalArgumentException("Invalid argument"));
 
         mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
@@ -179,7 +182,7 @@ class ErrorHandlerTest {
 
     @Test
     void handlerThrowable() throws Exception {
-        when(userController.getAllUsers())
+        when(userController.getAllUsers(isNull(), isNull(), isNull()))
                 .thenThrow(new IllegalStateException("Something went wrong"));
 
         mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
@@ -11,6 +11,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
@@ -36,6 +39,8 @@ class ItemControllerTest {
     ObjectMapper objectMapper;
     @MockBean
     ItemService itemService;
+    @MockBean
+    ItemImporter itemImporter;
     @Autowired
     MockMvc mvc;
 
@@ -125,4 +130,20 @@ class ItemControllerTest {
                 ).andExpect(status().isOk())
                 .andExpect(jsonPath("$.text", is("Great item!")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void importItems() throws Exception {
+        when(itemImporter.importItems(any(), eq(1L)))
+                .thenReturn(new ItemImportReport(2, 1, List.of(new ItemImportError(3, "Строка не сохранена"))));
+
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1)
+                        .content("{\"line\":1,\"name\":\"Item1\",\"description\":\"d\",\"available\":true}\n")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)));
+    }
+}
@@ -5,17 +5,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.BookingPointer;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -25,6 +30,8 @@ class ItemRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     private User ownerItem = User.builder()
             .name("ownerItem")
@@ -130,4 +137,60 @@ class ItemRepositoryTest {
         assertEquals(items.get(0).getAvailable(), item2.getAvailable());
         assertEquals(items.get(0).getRequest(), item2.getRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByRequestIn() {
+        List<Item> items = itemRepository.findAllByRequestIn(List.of(itemRequest.getId(), itemRequest.getId() + 100));
+
+        assertEquals(1, items.size());
+        assertEquals(item2.getId(), items.get(0).getId());
+        assertEquals(itemRequest.getId(), items.get(0).getRequest());
+        assertTrue(itemRepository.findAllByRequestIn(List.of(itemRequest.getId() + 100)).isEmpty());
+    }
+
+    @Test
+    void findIdsByNextBookingStartBefore() {
+        LocalDateTime now = LocalDateTime.now();
+        item1.setNextBooking(new BookingPointer(1L, ownerRequest.getId(), now.minusMinutes(1)));
+        itemRepository.save(item1);
+        item2.setNextBooking(new BookingPointer(2L, ownerRequest.getId(), now.plusDays(1)));
+        itemRepository.save(item2);
+        Item item3 = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .owner(ownerItem)
+                .nextBooking(new BookingPointer(3L, ownerRequest.getId(), now.minusDays(1)))
+                .build());
+
+        assertEquals(List.of(item1.getId()),
+                itemRepository.findIdsByNextBookingStartBefore(now, 0, PageRequest.of(0, 1)));
+        assertEquals(List.of(item3.getId()),
+                itemRepository.findIdsByNextBookingStartBefore(now, item1.getId(), PageRequest.of(0, 1)));
+        assertTrue(itemRepository.findIdsByNextBookingStartBefore(now, item3.getId(), PageRequest.of(0, 1)).isEmpty());
+    }
+
+    @Test
+    void updateKeepsPointerWrittenByAnotherTransaction() {
+        //Ссылку записали в обход загруженной вещи, как это сделала бы другая транзакция
+        entityManager.createNativeQuery("UPDATE items SET next_booking_id = 1 WHERE id = ?1")
+                .setParameter(1, item1.getId())
+                .executeUpdate();
+
+        item1.setName("Новое имя");
+        itemRepository.flush();
+        entityManager.clear();
+
+        Item saved = itemRepository.findById(item1.getId()).orElseThrow();
+        assertEquals("Новое имя", saved.getName());
+        assertEquals(1L, saved.getNextBooking().getBookingId());
+    }
+
+    @Test
+    void lockAllByIdIn() {
+        assertEquals(List.of(item1.getId(), item2.getId()), itemRepository.lockAllByIdIn(
+                        List.of(item2.getId(), item1.getId(), item2.getId() + 100)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+    }
+}
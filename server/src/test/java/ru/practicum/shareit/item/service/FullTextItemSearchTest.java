@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FullTextItemSearchTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private FullTextItemSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new FullTextItemSearch(itemRepository);
+    }
+
+    @Test
+    void toTsQuery() {
+        assertEquals("Дрель:* & аккумуляторная:*", FullTextItemSearch.toTsQuery("Дрель  аккумуляторная!"));
+        assertEquals("a:* & b:*", FullTextItemSearch.toTsQuery("a' | b)"));
+        assertEquals("", FullTextItemSearch.toTsQuery(" &:* "));
+    }
+
+    @Test
+    void searchPassesOffsetOfPage() {
+        Item item = Item.builder().id(1L).name("Дрель").build();
+        when(itemRepository.searchFullText("дрель:*", 20, 10)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), search.search("дрель", 25, 10));
+        verify(itemRepository).searchFullText("дрель:*", 20, 10);
+    }
+
+    @Test
+    void searchWithoutWords() {
+        assertTrue(search.search("!!!", 0, 10).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+}
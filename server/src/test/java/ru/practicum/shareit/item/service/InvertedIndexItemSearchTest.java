@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexItemSearchTest {
+    private final Item drill = item(1L, "Дрель", "Простая дрель", true);
+    private final Item screwdriver = item(2L, "Отвёртка", "Аккумуляторная отвёртка", true);
+    private final Item accumulatorDrill = item(3L, "Дрель-шуруповёрт", "Аккумуляторная дрель", true);
+    @Mock
+    private ItemRepository itemRepository;
+    private InvertedIndexItemSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new InvertedIndexItemSearch(itemRepository);
+        when(itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any()))
+                .thenReturn(List.of(drill, screwdriver, accumulatorDrill));
+        search.build();
+    }
+
+    @Test
+    void searchByWordPrefixes() {
+        when(itemRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(accumulatorDrill, drill));
+
+        assertEquals(List.of(drill, accumulatorDrill), search.search("ДРЕЛ", 0, 10));
+    }
+
+    @Test
+    void searchRequiresAllWords() {
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(accumulatorDrill));
+
+        assertEquals(List.of(accumulatorDrill), search.search("аккум дрель", 0, 10));
+    }
+
+    @Test
+    void searchLoadsOnlyRequestedPage() {
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(accumulatorDrill));
+
+        assertEquals(List.of(accumulatorDrill), search.search("дрель", 1, 1));
+        assertTrue(search.search("дрель", 2, 1).isEmpty());
+        verify(itemRepository).findAllById(List.of(3L));
+    }
+
+    @Test
+    void searchWithoutMatches() {
+        assertTrue(search.search("пила", 0, 10).isEmpty());
+        assertTrue(search.search("  ", 0, 10).isEmpty());
+        verify(itemRepository).findAllByAvailableTrueAndIdGreaterThanOrderById(anyLong(), any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void indexItemReplacesWordsAndDropsUnavailable() {
+        search.indexItem(item(1L, "Пила", "Ручная пила", true));
+        search.indexItem(item(3L, "Дрель-шуруповёрт", "Аккумуляторная дрель", false));
+        search.indexItem(item(4L, "Пила", "Бензопила", true));
+        when(itemRepository.findAllById(List.of(1L, 4L))).thenReturn(List.of(drill, screwdriver));
+
+        assertTrue(search.search("дрель", 0, 10).isEmpty());
+        assertEquals(2, search.search("пила", 0, 10).size());
+    }
+
+    @Test
+    void buildLoadsItemsInBatches() {
+        List<Item> batch = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            batch.add(item(id, "Вещь", "Описание", true));
+        }
+        when(itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any())).thenReturn(batch);
+        when(itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(eq(1_000L), any()))
+                .thenReturn(List.of(item(1_001L, "Вещь", "Описание", true)));
+        when(itemRepository.findAllById(List.of(1_001L))).thenReturn(List.of(batch.get(0)));
+
+        search = new InvertedIndexItemSearch(itemRepository);
+        search.build();
+
+        assertEquals(1, search.search("вещь", 1_000, 1_000).size());
+    }
+
+    @Test
+    void sortedDistinctAndIntersect() {
+        assertArrayEquals(new long[]{1, 2, 3, 5}, InvertedIndexItemSearch.sortedDistinct(new long[]{1, 3, 5, 2, 3}));
+        assertArrayEquals(new long[]{3}, InvertedIndexItemSearch.intersect(new long[]{1, 3, 5}, new long[]{2, 3}));
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
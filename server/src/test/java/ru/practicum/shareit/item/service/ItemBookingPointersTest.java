@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
+import ru.practicum.shareit.item.model.BookingPointer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingPointersTest {
+    private final LocalDateTime now = LocalDateTime.of(2023, 6, 15, 12, 0);
+    private final User booker = User.builder().id(5L).build();
+    private final ChangeFeed changeFeed = new ChangeFeed(100);
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private ItemBookingPointers pointers;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        pointers = new ItemBookingPointers(itemRepository, bookingRepository, changeFeed);
+        item = Item.builder().id(1L).build();
+    }
+
+    @Test
+    void onApprovedKeepsClosestBookings() {
+        pointers.onApproved(booking(1L, now.minusDays(3)), now);
+        pointers.onApproved(booking(2L, now.minusDays(1)), now);
+        pointers.onApproved(booking(3L, now.minusDays(2)), now);
+        pointers.onApproved(booking(4L, now.plusDays(3)), now);
+        pointers.onApproved(booking(5L, now.plusDays(1)), now);
+        pointers.onApproved(booking(6L, now.plusDays(2)), now);
+
+        assertEquals(2L, item.getLastBooking().getBookingId());
+        assertEquals(booker.getId(), item.getLastBooking().getBookerId());
+        assertEquals(5L, item.getNextBooking().getBookingId());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void onRejectedOfOtherBookingChangesNothing() {
+        pointers.onApproved(booking(1L, now.plusDays(1)), now);
+
+        pointers.onRejected(booking(2L, now.plusDays(2)), now);
+
+        assertEquals(1L, item.getNextBooking().getBookingId());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void onRejectedOfNextBookingRefreshesItem() {
+        Booking rejected = booking(1L, now.plusDays(1));
+        pointers.onApproved(rejected, now);
+        when(bookingRepository.findLastBookings(List.of(item.getId()), now)).thenReturn(List.of());
+        when(bookingRepository.findNextBookings(List.of(item.getId()), now))
+                .thenReturn(List.of(booking(2L, now.plusDays(5))));
+
+        pointers.onRejected(rejected, now);
+
+        assertNull(item.getLastBooking());
+        assertEquals(2L, item.getNextBooking().getBookingId());
+    }
+
+    @Test
+    void isStale() {
+        assertFalse(pointers.isStale(item, now));
+
+        item.setNextBooking(new BookingPointer(1L, booker.getId(), now.plusMinutes(1)));
+        assertFalse(pointers.isStale(item, now));
+
+        item.setNextBooking(new BookingPointer(1L, booker.getId(), now.minusMinutes(1)));
+        assertTrue(pointers.isStale(item, now));
+    }
+
+    @Test
+    void refreshStaleSkipsActualItems() {
+        Item actual = Item.builder().id(2L).build();
+        actual.setNextBooking(new BookingPointer(7L, booker.getId(), now.plusDays(1)));
+        item.setNextBooking(new BookingPointer(1L, booker.getId(), now.minusHours(1)));
+        when(bookingRepository.findLastBookings(List.of(item.getId()), now))
+                .thenReturn(List.of(booking(1L, now.minusHours(1))));
+        when(bookingRepository.findNextBookings(List.of(item.getId()), now)).thenReturn(List.of());
+
+        pointers.refreshStale(List.of(item, actual), now);
+
+        assertEquals(1L, item.getLastBooking().getBookingId());
+        assertNull(item.getNextBooking());
+        assertEquals(7L, actual.getNextBooking().getBookingId());
+        assertEquals(List.of(new ChangeDto(1, ChangeType.ITEM, item.getId())),
+                changeFeed.getChanges(0L, 10, Duration.ZERO).getChanges());
+    }
+
+    @Test
+    void refreshWithoutChangesPublishesNothing() {
+        Booking next = booking(1L, now.plusDays(1));
+        item.setNextBooking(BookingPointer.of(next));
+        when(bookingRepository.findLastBookings(List.of(item.getId()), now)).thenReturn(List.of());
+        when(bookingRepository.findNextBookings(List.of(item.getId()), now)).thenReturn(List.of(next));
+
+        pointers.refresh(item, now);
+
+        assertEquals(1L, item.getNextBooking().getBookingId());
+        assertTrue(changeFeed.getChanges(0L, 10, Duration.ZERO).getChanges().isEmpty());
+    }
+
+    @Test
+    void refreshStaleWithoutStaleItems() {
+        pointers.refreshStale(List.of(item), now);
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void rollForwardRefreshesStartedNextBookings() {
+        Booking started = booking(1L, now.minusMinutes(1));
+        item.setNextBooking(BookingPointer.of(started));
+        Item fresh = Item.builder().id(2L).build();
+        when(itemRepository.lockAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(item, fresh));
+        when(bookingRepository.findLastBookings(List.of(item.getId()), now)).thenReturn(List.of(started));
+        when(bookingRepository.findNextBookings(List.of(item.getId()), now)).thenReturn(List.of());
+
+        pointers.rollForward(List.of(1L, 2L), now);
+
+        assertEquals(1L, item.getLastBooking().getBookingId());
+        assertNull(item.getNextBooking());
+    }
+
+    private Booking booking(Long id, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(1))
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
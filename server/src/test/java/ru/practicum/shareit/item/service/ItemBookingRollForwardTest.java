@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.CannotAcquireLockException;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingRollForwardTest {
+    private final PageRequest page = PageRequest.of(0, ItemBookingRollForward.BATCH_SIZE);
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemBookingPointers itemBookingPointers;
+    private ItemBookingRollForward rollForward;
+
+    @BeforeEach
+    void setUp() {
+        rollForward = new ItemBookingRollForward(itemRepository, itemBookingPointers);
+    }
+
+    @Test
+    void rollForwardRefreshesEveryPage() {
+        List<Long> firstPage = ids(1, ItemBookingRollForward.BATCH_SIZE);
+        List<Long> secondPage = ids(1000, 3);
+        when(itemRepository.findIdsByNextBookingStartBefore(any(), eq(0L), eq(page))).thenReturn(firstPage);
+        when(itemRepository.findIdsByNextBookingStartBefore(any(), eq((long) ItemBookingRollForward.BATCH_SIZE),
+                eq(page))).thenReturn(secondPage);
+
+        rollForward.rollForward();
+
+        verify(itemBookingPointers).rollForward(eq(firstPage), any());
+        verify(itemBookingPointers).rollForward(eq(secondPage), any());
+        verify(itemRepository, times(2)).findIdsByNextBookingStartBefore(any(), anyLong(), any());
+    }
+
+    @Test
+    void rollForwardSkipsLockedPage() {
+        List<Long> firstPage = ids(1, ItemBookingRollForward.BATCH_SIZE);
+        List<Long> secondPage = ids(1000, 3);
+        when(itemRepository.findIdsByNextBookingStartBefore(any(), eq(0L), eq(page))).thenReturn(firstPage);
+        when(itemRepository.findIdsByNextBookingStartBefore(any(), eq((long) ItemBookingRollForward.BATCH_SIZE),
+                eq(page))).thenReturn(secondPage);
+        doThrow(new CannotAcquireLockException("Lock timeout"))
+                .when(itemBookingPointers).rollForward(eq(firstPage), any());
+
+        rollForward.rollForward();
+
+        verify(itemBookingPointers).rollForward(eq(secondPage), any());
+    }
+
+    @Test
+    void rollForwardWithoutStaleItems() {
+        when(itemRepository.findIdsByNextBookingStartBefore(any(), eq(0L), eq(page))).thenReturn(List.of());
+
+        rollForward.rollForward();
+
+        verifyNoInteractions(itemBookingPointers);
+    }
+
+    private List<Long> ids(long from, int count) {
+        return LongStream.range(from, from + count).boxed().collect(Collectors.toList());
+    }
+}
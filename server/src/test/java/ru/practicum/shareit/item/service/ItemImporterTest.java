@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemImporterTest {
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+    private ItemImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new ItemImporter(itemService, userExistenceCache, new ObjectMapper());
+    }
+
+    @Test
+    void importItemsInChunks() throws Exception {
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+        int rows = ItemImporter.CHUNK_SIZE + 1;
+
+        ItemImportReport report = importer.importItems(rows(rows), 1L);
+
+        assertEquals(rows, report.getImported());
+        assertEquals(0, report.getFailed());
+        verify(itemService, times(1)).addItems(argThat(items -> items.size() == ItemImporter.CHUNK_SIZE), anyLong());
+        verify(itemService, times(1)).addItems(argThat(items -> items.size() == 1), anyLong());
+    }
+
+    @Test
+    void failedChunkIsSavedRowByRow() throws Exception {
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+        when(itemService.addItems(anyList(), anyLong())).thenAnswer(invocation -> {
+            List<ItemDto> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(item -> item.getName().equals("item2"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return items;
+        });
+
+        ItemImportReport report = importer.importItems(rows(3), 1L);
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().contains("value too long"));
+    }
+
+    @Test
+    void importItemsWithNonExistingUser() {
+        when(userExistenceCache.exists(10L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> importer.importItems(rows(3), 10L));
+
+        verify(itemService, never()).addItems(anyList(), anyLong());
+    }
+
+    @Test
+    void importEmptyBody() throws Exception {
+        when(userExistenceCache.exists(1L)).thenReturn(true);
+
+        ItemImportReport report = importer.importItems(new ByteArrayInputStream(new byte[0]), 1L);
+
+        assertEquals(0, report.getImported());
+        verify(itemService, never()).addItems(anyList(), anyLong());
+    }
+
+    private InputStream rows(int count) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            body.append(String.format(
+                    "{\"line\":%d,\"name\":\"item%d\",\"description\":\"description\",\"available\":true}%n", i, i));
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -11,6 +11,7 @@ import ru.practicum.shareit.booking.exception.BookingValidationException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
@@ -18,14 +19,18 @@ import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemOwnerIsDefferentException;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.BookingPointer;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.CommentRepository;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.request.service.RequestFeedCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -54,6 +59,7 @@ class ItemServiceImplTest {
             .available(true)
             .owner(owner1)
             .build();
+    private final ChangeFeed changeFeed = new ChangeFeed(100);
     private ItemService itemService;
     @Mock
     private UserRepository userRepository;
@@ -63,34 +69,60 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private RequestFeedCache requestFeedCache;
 
     @BeforeEach
     public void setUp() {
-        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository,
+                new ItemBookingPointers(itemRepository, bookingRepository, changeFeed), new LikeItemSearch(itemRepository),
+                requestFeedCache, new UserExistenceCache(userRepository, 100, Duration.ofMinutes(1)), changeFeed);
     }
 
     @Test
     void getUserItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         Page<Item> page = new PageImpl<>(Collections.singletonList(item1));
         when(itemRepository.findAllByOwnerId(anyLong(), any())).thenReturn(page);
         when(commentRepository.findAllByItemIdIn(any())).thenReturn(Collections.emptyList());
-        when(bookingRepository.findLastBookings(anyLong(), any())).thenReturn(Collections.emptyList());
-        when(bookingRepository.findNextBooking(anyLong(), any())).thenReturn(Collections.emptyList());
+        item1.setLastBooking(new BookingPointer(1L, owner2.getId(), LocalDateTime.now().minusDays(1)));
+        item1.setNextBooking(new BookingPointer(2L, owner2.getId(), LocalDateTime.now().plusDays(1)));
 
         List<ItemFullDto> response = itemService.getUserItems(owner1.getId(), 0, 10);
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
+        assertEquals(1L, response.get(0).getLastBooking().getId());
+        assertEquals(2L, response.get(0).getNextBooking().getId());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRepository, times(1)).findAllByOwnerId(anyLong(), any());
         verify(commentRepository, times(1)).findAllByItemIdIn(any());
-        verify(bookingRepository, times(1)).findLastBookings(anyLong(), any());
-        verify(bookingRepository, times(1)).findNextBooking(anyLong(), any());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getUserItemsWithStartedNextBooking() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findAllByOwnerId(anyLong(), any())).thenReturn(new PageImpl<>(List.of(item1)));
+        when(commentRepository.findAllByItemIdIn(any())).thenReturn(Collections.emptyList());
+        item1.setNextBooking(new BookingPointer(2L, owner2.getId(), LocalDateTime.now().minusHours(1)));
+        Booking started = Booking.builder()
+                .id(2L)
+                .item(item1)
+                .booker(owner2)
+                .start(LocalDateTime.now().minusHours(1))
+                .build();
+        when(bookingRepository.findLastBookings(any(), any())).thenReturn(List.of(started));
+        when(bookingRepository.findNextBookings(any(), any())).thenReturn(Collections.emptyList());
+
+        List<ItemFullDto> response = itemService.getUserItems(owner1.getId(), 0, 10);
+
+        assertEquals(2L, response.get(0).getLastBooking().getId());
+        assertNull(response.get(0).getNextBooking());
     }
 
     @Test
     void getUserItemsWithNonExistingUser() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         Exception exception = assertThrows(
                 UserNotFoundException.class,
@@ -101,31 +133,49 @@ class ItemServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRepository, never()).findAllByOwnerId(anyLong(), any());
         verify(commentRepository, never()).findAllByItemIdIn(any());
-        verify(bookingRepository, never()).findLastBookings(anyLong(), any());
-        verify(bookingRepository, never()).findNextBooking(anyLong(), any());
     }
 
     @Test
     void getItemById() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
-        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(anyLong(), anyLong(), any(), any()))
-                .thenReturn(Booking.builder().id(owner2.getId()).booker(owner2).build());
-        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(anyLong(), anyLong(), any(), any()))
-                .thenReturn(null);
         when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        item1.setLastBooking(new BookingPointer(owner2.getId(), owner2.getId(), LocalDateTime.now().minusDays(1)));
 
         ItemFullDto response = itemService.getItemById(item1.getId(), owner1.getId());
         assertEquals(item1.getId(), response.getId());
+        assertEquals(owner2.getId(), response.getLastBooking().getBookerId());
+        assertNull(response.getNextBooking());
 
         verify(itemRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(
-                anyLong(), anyLong(), any(), any());
-        verify(bookingRepository, times(1)).findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(
-                anyLong(), anyLong(), any(), any());
         verify(commentRepository, times(1)).findAllByItemId(anyLong());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemByIdWithoutLastBooking() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
+        when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        item1.setNextBooking(new BookingPointer(2L, owner2.getId(), LocalDateTime.now().plusDays(1)));
+
+        ItemFullDto response = itemService.getItemById(item1.getId(), owner1.getId());
+
+        assertNull(response.getLastBooking());
+        assertNull(response.getNextBooking());
+    }
+
+    @Test
+    void getItemByIdNotOwner() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
+        when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        item1.setLastBooking(new BookingPointer(1L, owner2.getId(), LocalDateTime.now().minusDays(1)));
+
+        ItemFullDto response = itemService.getItemById(item1.getId(), owner2.getId());
+
+        assertNull(response.getLastBooking());
+        assertNull(response.getNextBooking());
     }
 
     @Test
@@ -142,10 +192,6 @@ class ItemServiceImplTest {
         assertTrue(actualMessage.contains(expectedMessage));
 
         verify(itemRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).findFirstByItemIdAndItemOwnerIdAndStartBeforeAndStatusOrderByStartDesc(
-                anyLong(), anyLong(), any(), any());
-        verify(bookingRepository, never()).findFirstByItemIdAndItemOwnerIdAndStartAfterAndStatusOrderByStartAsc(
-                anyLong(), anyLong(), any(), any());
         verify(commentRepository, never()).findAllByItemId(anyLong());
     }
 
@@ -163,13 +209,14 @@ class ItemServiceImplTest {
 
     @Test
     void addItemW() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
 
         ItemDto itemDto = ItemMapper.toItemDto(item1);
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(owner1);
 
         when(itemRepository.save(any())).thenReturn(item);
+        when(userRepository.getReferenceById(owner1.getId())).thenReturn(owner1);
 
         ItemDto response = itemService.addItem(itemDto, owner1.getId());
         assertEquals(itemDto.getId(), response.getId());
@@ -177,13 +224,14 @@ class ItemServiceImplTest {
         assertEquals(itemDto.getDescription(), response.getDescription());
         assertEquals(itemDto.getAvailable(), response.getAvailable());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).save(any());
     }
 
     @Test
     void addItemWithNonExistingUser() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         ItemDto itemDto = ItemMapper.toItemDto(item1);
 
@@ -196,10 +244,46 @@ class ItemServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addItems() {
+        when(userRepository.existsById(owner1.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner1.getId())).thenReturn(owner1);
+        when(itemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            long id = 10;
+            for (Item item : items) {
+                assertNull(item.getId());
+                assertEquals(owner1, item.getOwner());
+                item.setId(id++);
+            }
+            return items;
+        });
+
+        List<ItemDto> response = itemService.addItems(List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item1)),
+                owner1.getId());
+
+        assertEquals(2, response.size());
+        assertEquals(10L, response.get(0).getId());
+        assertEquals(11L, response.get(1).getId());
+        verify(itemRepository, times(1)).saveAll(any());
         verify(itemRepository, never()).save(any());
     }
 
+    @Test
+    void addItemsWithNonExistingUser() {
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class,
+                () -> itemService.addItems(List.of(ItemMapper.toItemDto(item1)), 10L));
+
+        verify(itemRepository, never()).saveAll(any());
+    }
+
     @Test
     void updateItem() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item1));
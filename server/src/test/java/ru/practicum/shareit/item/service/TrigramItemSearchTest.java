@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrigramItemSearchTest {
+    private final Item drill = item(1L, "Дрель", "Простая дрель", true);
+    private final Item screwdriver = item(2L, "Отвёртка", "Аккумуляторная отвёртка", true);
+    private final Item accumulatorDrill = item(3L, "Шуруповёрт", "Аккумуляторная дрель", true);
+    @Mock
+    private ItemRepository itemRepository;
+    private TrigramItemSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new TrigramItemSearch(itemRepository);
+        when(itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any()))
+                .thenReturn(List.of(drill, screwdriver, accumulatorDrill));
+        search.build();
+    }
+
+    @Test
+    void searchBySubstringInAnyCase() {
+        when(itemRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(accumulatorDrill, drill));
+
+        assertEquals(List.of(drill, accumulatorDrill), search.search("ДРЕ", 0, 10));
+    }
+
+    @Test
+    void searchInsideWord() {
+        when(itemRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(screwdriver, accumulatorDrill));
+
+        assertEquals(List.of(screwdriver, accumulatorDrill), search.search("муляТ", 0, 10));
+    }
+
+    @Test
+    void searchChecksWholeSubstringNotOnlyTrigrams() {
+        search.indexItem(item(4L, "Абваб", "Абг", true));
+        //все тройки "бвабв" есть в названии "Абваб", но самой подстроки нет
+        assertTrue(search.search("бвабв", 0, 10).isEmpty());
+        //тройки на стыке названия и описания не индексируются
+        assertTrue(search.search("ельПро", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchShortText() {
+        when(itemRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(screwdriver, accumulatorDrill));
+
+        assertEquals(2, search.search("ёр", 0, 10).size());
+    }
+
+    @Test
+    void searchLoadsOnlyRequestedPage() {
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(accumulatorDrill));
+
+        assertEquals(List.of(accumulatorDrill), search.search("дрель", 1, 1));
+        assertTrue(search.search("дрель", 2, 1).isEmpty());
+        verify(itemRepository).findAllById(List.of(3L));
+    }
+
+    @Test
+    void searchWithLikeWildcardsGoesToDatabase() {
+        when(itemRepository.search("др_ль", PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(drill)));
+
+        assertEquals(List.of(drill), search.search("др_ль", 0, 10));
+    }
+
+    @Test
+    void indexItemReplacesTextAndDropsUnavailable() {
+        search.indexItem(item(1L, "Пила", "Ручная пила", true));
+        search.indexItem(item(3L, "Шуруповёрт", "Аккумуляторная дрель", false));
+        search.indexItem(item(4L, "Бензопила", "Мощная", true));
+        when(itemRepository.findAllById(List.of(1L, 4L))).thenReturn(List.of(drill, screwdriver));
+
+        assertTrue(search.search("дрель", 0, 10).isEmpty());
+        assertEquals(2, search.search("пила", 0, 10).size());
+        verify(itemRepository).findAllByAvailableTrueAndIdGreaterThanOrderById(anyLong(), any());
+        verify(itemRepository).findAllById(any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void indexItemRestoresTextWhenItemBecomesAvailable() {
+        search.indexItem(item(1L, "Дрель", "Простая дрель", false));
+        assertTrue(search.search("простая", 0, 10).isEmpty());
+
+        search.indexItem(drill);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+
+        assertEquals(List.of(drill), search.search("простая", 0, 10));
+    }
+
+    @Test
+    void trigramsOf() {
+        assertEquals(0, TrigramItemSearch.trigramsOf("АБ").length);
+        long[] trigrams = TrigramItemSearch.trigramsOf("АБВГ");
+        assertEquals(2, trigrams.length);
+        assertNotEquals(trigrams[0], trigrams[1]);
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheHitRatioMetricsTest {
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private Statistics statistics;
+    @Mock
+    private CacheRegionStatistics itemsStatistics;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"items"});
+        new CacheHitRatioMetrics(entityManagerFactory).bindTo(registry);
+    }
+
+    @Test
+    void regionHitRatio() {
+        when(statistics.getDomainDataRegionStatistics("items")).thenReturn(itemsStatistics);
+        when(itemsStatistics.getHitCount()).thenReturn(3L);
+        when(itemsStatistics.getMissCount()).thenReturn(1L);
+
+        assertEquals(0.75, registry.get("hibernate.cache.hit.ratio").tag("region", "items").gauge().value());
+    }
+
+    @Test
+    void queryCacheHitRatioWithoutRequests() {
+        when(statistics.getQueryCacheHitCount()).thenReturn(0L);
+        when(statistics.getQueryCacheMissCount()).thenReturn(0L);
+
+        assertTrue(Double.isNaN(registry.get("hibernate.cache.hit.ratio").tag("region", "query-results").gauge().value()));
+    }
+}
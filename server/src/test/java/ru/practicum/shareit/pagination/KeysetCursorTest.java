@@ -0,0 +1,35 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+    @Test
+    void parse() {
+        KeysetCursor cursor = KeysetCursor.parse("2023-06-15T10:10:00,5");
+
+        assertEquals(LocalDateTime.of(2023, 6, 15, 10, 10), cursor.getPosition());
+        assertEquals(5L, cursor.getId());
+    }
+
+    @Test
+    void parseToStringRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2023, 6, 15, 10, 10, 1, 500), 7L);
+
+        assertEquals(cursor, KeysetCursor.parse(cursor.toString()));
+    }
+
+    @Test
+    void parseWithoutId() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("2023-06-15T10:10:00"));
+    }
+
+    @Test
+    void parseWithWrongDate() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("yesterday,5"));
+    }
+}
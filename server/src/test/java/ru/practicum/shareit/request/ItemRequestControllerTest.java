@@ -24,6 +24,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -88,6 +89,21 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].description", is("Need an item")));
     }
 
+    @Test
+    void getUserRequestsAfter() throws Exception {
+        List<ItemRequestResponseFullDto> itemRequests = List.of(itemRequestResponseFullDto);
+        when(itemRequestService.getUserRequestsAfter(anyLong(), anyString(), anyInt()))
+                .thenReturn(itemRequests);
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "10")
+                        .param("after", "2023-06-15T10:10:00,5")
+                        .accept(MediaType.APPLICATION_JSON)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description", is("Need an item")));
+    }
+
     @Test
     void getRequestById() throws Exception {
         when(itemRequestService.getRequestById(anyLong(), anyLong()))
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -12,12 +13,15 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRequestRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
     @Autowired
     private UserRepository userRepository;
     @Autowired
@@ -31,13 +35,13 @@ class ItemRequestRepositoryTest {
     private ItemRequest itemRequest1 = ItemRequest.builder()
             .user(ownerRequest)
             .description("Нужна газонокосилка.")
-            .created(LocalDateTime.now().plusHours(1))
+            .created(NOW.plusHours(1))
             .build();
 
     private ItemRequest itemRequest2 = ItemRequest.builder()
             .user(ownerRequest)
             .description("Нужна бензопила.")
-            .created(LocalDateTime.now())
+            .created(NOW)
             .build();
 
     @AfterEach
@@ -80,7 +84,7 @@ class ItemRequestRepositoryTest {
         itemRequest2.setUser(owner2);
 
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserIdNot(
-                owner2.getId(), Pageable.unpaged()).getContent();
+                owner2.getId(), Pageable.unpaged());
 
         assertEquals(itemRequests.size(), 1);
         assertEquals(itemRequests.get(0).getId(), itemRequest1.getId());
@@ -88,4 +92,29 @@ class ItemRequestRepositoryTest {
         assertEquals(itemRequests.get(0).getCreated(), itemRequest1.getCreated());
         assertEquals(itemRequests.get(0).getDescription(), itemRequest1.getDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByUserIdNotAfter() {
+        User owner2 = userRepository.save(User.builder()
+                .name("ownerRequest2")
+                .email("ownerRequest2@mail.ru")
+                .build());
+        ItemRequest sameCreated = itemRequestRepository.save(ItemRequest.builder()
+                .user(ownerRequest)
+                .description("Нужна дрель.")
+                .created(itemRequest1.getCreated())
+                .build());
+
+        List<ItemRequest> firstPage = itemRequestRepository.findAllByUserIdNotAfter(owner2.getId(),
+                itemRequest1.getCreated().plusDays(1), 0, PageRequest.of(0, 2));
+        assertEquals(List.of(sameCreated, itemRequest1), firstPage);
+
+        ItemRequest last = firstPage.get(1);
+        List<ItemRequest> secondPage = itemRequestRepository.findAllByUserIdNotAfter(owner2.getId(),
+                last.getCreated(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(itemRequest2), secondPage);
+
+        assertTrue(itemRequestRepository.findAllByUserIdNotAfter(ownerRequest.getId(),
+                itemRequest1.getCreated().plusDays(1), 0, PageRequest.of(0, 2)).isEmpty());
+    }
+}
@@ -5,9 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositrory.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -19,10 +19,13 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.RequestFeedCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -79,10 +82,14 @@ class ItemRequestServiceImplTest {
     private ItemRepository itemRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private RequestFeedCache requestFeedCache;
 
     @BeforeEach
     public void setUp() {
-        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository);
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository,
+                requestFeedCache, new UserExistenceCache(userRepository, 100, Duration.ofMinutes(1)),
+                new ChangeFeed(100));
     }
 
     @Test
@@ -101,6 +108,7 @@ class ItemRequestServiceImplTest {
 
         verify(userRepository, times(1)).findById(owner1.getId());
         verify(itemRequestRepository, times(1)).save(any(ItemRequest.class));
+        verify(requestFeedCache, times(1)).onRequestCreated(expectedItemRequest);
     }
 
     @Test
@@ -123,20 +131,24 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getOwnerRequests() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         List<ItemRequest> itemRequests = Collections.singletonList(itemRequest2);
         when(itemRequestRepository.findAllByUserIdOrderByCreatedDesc(anyLong())).thenReturn(itemRequests);
+        item2.setRequest(itemRequest2.getId());
+        when(itemRepository.findAllByRequestIn(List.of(itemRequest2.getId()))).thenReturn(List.of(item2));
 
         List<ItemRequestResponseFullDto> response = itemRequestService.getOwnerRequests(owner1.getId());
 
         assertEquals(1, response.size());
-        verify(userRepository, times(1)).findById(anyLong());
+        assertEquals(1, response.get(0).getItems().size());
+        assertEquals(item2.getId(), response.get(0).getItems().get(0).getId());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRequestRepository, times(1)).findAllByUserIdOrderByCreatedDesc(anyLong());
     }
 
     @Test
     void getOwnerRequestsWithUserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         Exception exception = assertThrows(
                 UserNotFoundException.class,
@@ -147,24 +159,63 @@ class ItemRequestServiceImplTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRequestRepository, never()).findAllByUserIdOrderByCreatedDesc(anyLong());
     }
 
     @Test
     void getUserRequests() {
-        Page<ItemRequest> itemRequestPage = new PageImpl<>(Arrays.asList(itemRequest1, itemRequest2));
-        when(itemRequestRepository.findAllByUserIdNot(anyLong(), any(Pageable.class))).thenReturn(itemRequestPage);
+        when(itemRequestRepository.findAllByUserIdNot(anyLong(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(itemRequest1, itemRequest2));
+        item1.setRequest(itemRequest1.getId());
+        item2.setRequest(itemRequest1.getId());
+        when(itemRepository.findAllByRequestIn(List.of(itemRequest1.getId(), itemRequest2.getId())))
+                .thenReturn(List.of(item1, item2));
 
         List<ItemRequestResponseFullDto> response = itemRequestService.getUserRequests(owner1.getId(), 0, 2);
 
         assertEquals(2, response.size());
+        assertEquals(2, response.get(0).getItems().size());
+        assertTrue(response.get(1).getItems().isEmpty());
+        verify(itemRepository, times(1)).findAllByRequestIn(any());
+        verify(itemRepository, never()).findAllByRequest(anyLong());
         verify(itemRequestRepository, times(1)).findAllByUserIdNot(anyLong(), any(Pageable.class));
     }
 
+    @Test
+    void getUserRequestsFromCache() {
+        List<ItemRequestResponseFullDto> cached = List.of(
+                ItemRequestMapper.toItemRequestResponseFullDto(itemRequest1, Collections.emptyList()));
+        when(requestFeedCache.getPage(owner1.getId(), 0, 2)).thenReturn(Optional.of(cached));
+
+        assertEquals(cached, itemRequestService.getUserRequests(owner1.getId(), 0, 2));
+        verifyNoInteractions(itemRequestRepository, itemRepository);
+    }
+
+    @Test
+    void getUserRequestsAfter() {
+        LocalDateTime created = LocalDateTime.of(2023, 6, 15, 10, 10);
+        when(itemRequestRepository.findAllByUserIdNotAfter(owner1.getId(), created, 5L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(itemRequest1));
+
+        List<ItemRequestResponseFullDto> response = itemRequestService.getUserRequestsAfter(
+                owner1.getId(), "2023-06-15T10:10:00,5", 2);
+
+        assertEquals(1, response.size());
+        assertEquals(itemRequest1.getId(), response.get(0).getId());
+        verify(itemRequestRepository, never()).findAllByUserIdNot(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getUserRequestsAfterWithWrongCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemRequestService.getUserRequestsAfter(owner1.getId(), "вчера", 2));
+        verifyNoInteractions(itemRequestRepository);
+    }
+
     @Test
     void getRequestById() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest1));
         when(itemRepository.findAllByRequest(anyLong())).thenReturn(Arrays.asList(item1, item2));
 
@@ -172,14 +223,14 @@ class ItemRequestServiceImplTest {
 
         assertEquals(itemRequest1.getId(), response.getId());
         assertEquals(2, response.getItems().size());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRequestRepository, times(1)).findById(anyLong());
         verify(itemRepository, times(1)).findAllByRequest(anyLong());
     }
 
     @Test
     void getRequestByIdWithUserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         Exception exception = assertThrows(
                 UserNotFoundException.class,
@@ -189,14 +240,14 @@ class ItemRequestServiceImplTest {
         String actualMessage = exception.getMessage();
 
         assertTrue(actualMessage.contains(expectedMessage));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findAllByRequest(anyLong());
     }
 
     @Test
     void getRequestByIdWithRequestNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner1));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(
@@ -207,7 +258,7 @@ class ItemRequestServiceImplTest {
         String actualMessage = exception.getMessage();
 
         assertTrue(actualMessage.contains(expectedMessage));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).existsById(anyLong());
         verify(itemRequestRepository, times(1)).findById(anyLong());
         verify(itemRepository, never()).findAllByRequest(anyLong());
     }
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositrory.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemRequestResponseFullDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.RequestFeedCache;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestFeedCacheTest {
+    private final LocalDateTime now = LocalDateTime.of(2023, 6, 15, 12, 0);
+    private final User author = User.builder().id(1L).build();
+    private final User reader = User.builder().id(2L).build();
+    private final ItemRequest request1 = request(1L, reader, now.minusHours(3));
+    private final ItemRequest request2 = request(2L, author, now.minusHours(2));
+    private final ItemRequest request3 = request(3L, author, now.minusHours(1));
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    private RequestFeedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RequestFeedCache(itemRequestRepository, itemRepository, 3);
+    }
+
+    @Test
+    void getPageLoadsWindowOnce() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3, request2));
+        when(itemRepository.findAllByRequestIn(List.of(3L, 2L))).thenReturn(List.of(item(10L, 2L)));
+
+        assertEquals(List.of(3L, 2L), ids(cache.getPage(reader.getId(), 0, 10)));
+        assertEquals(List.of(2L), ids(cache.getPage(reader.getId(), 1, 1)));
+        assertEquals(List.of(), ids(cache.getPage(author.getId(), 0, 10)));
+        assertEquals(10L, cache.getPage(reader.getId(), 1, 1).orElseThrow().get(0).getItems().get(0).getId());
+
+        verify(itemRequestRepository, times(1)).findAllBy(any());
+    }
+
+    @Test
+    void getPageBeyondFullWindowGoesToDatabase() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3, request2, request1));
+
+        assertEquals(List.of(3L, 2L), ids(cache.getPage(reader.getId(), 0, 2)));
+        assertTrue(cache.getPage(reader.getId(), 2, 2).isEmpty());
+        assertTrue(cache.getPage(author.getId(), 0, 2).isEmpty());
+    }
+
+    @Test
+    void getPageAfter() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3, request2));
+
+        assertEquals(List.of(2L),
+                ids(cache.getPageAfter(reader.getId(), new KeysetCursor(request3.getCreated(), 3L), 10)));
+        assertEquals(List.of(3L, 2L),
+                ids(cache.getPageAfter(reader.getId(), new KeysetCursor(now, Long.MAX_VALUE), 10)));
+    }
+
+    @Test
+    void onRequestCreatedEvictsOldest() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3, request2, request1));
+        cache.getPage(reader.getId(), 0, 1);
+
+        cache.onRequestCreated(request(4L, author, now));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(cache.getPage(reader.getId(), 0, 3)));
+        assertTrue(cache.getPage(reader.getId(), 0, 4).isEmpty());
+    }
+
+    @Test
+    void onRequestCreatedBeforeLoadIsLeftToLoad() {
+        cache.onRequestCreated(request3);
+        verifyNoInteractions(itemRequestRepository);
+
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3));
+        assertEquals(List.of(3L), ids(cache.getPage(reader.getId(), 0, 10)));
+    }
+
+    @Test
+    void onItemSavedAddsAndReplacesAnswer() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3));
+        cache.getPage(reader.getId(), 0, 1);
+
+        cache.onItemSaved(item(11L, 3L));
+        Item renamed = item(11L, 3L);
+        renamed.setName("Дрель новая");
+        cache.onItemSaved(renamed);
+        cache.onItemSaved(item(12L, 99L));
+        cache.onItemSaved(item(13L, null));
+
+        ItemRequestResponseFullDto feed = cache.getPage(reader.getId(), 0, 1).orElseThrow().get(0);
+        assertEquals(1, feed.getItems().size());
+        assertEquals("Дрель новая", feed.getItems().get(0).getName());
+    }
+
+    @Test
+    void clearReloadsWindow() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request3));
+        cache.getPage(reader.getId(), 0, 1);
+
+        cache.clear();
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request2));
+
+        assertEquals(List.of(2L), ids(cache.getPage(reader.getId(), 0, 10)));
+    }
+
+    private List<Long> ids(Optional<List<ItemRequestResponseFullDto>> page) {
+        return page.orElseThrow().stream().map(ItemRequestResponseFullDto::getId).collect(Collectors.toList());
+    }
+
+    private static ItemRequest request(Long id, User user, LocalDateTime created) {
+        return ItemRequest.builder().id(id).user(user).description("Нужна вещь " + id).created(created).build();
+    }
+
+    private static Item item(Long id, Long requestId) {
+        return Item.builder().id(id).name("Дрель").description("Простая дрель").available(true)
+                .request(requestId).build();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserAlreadyExistException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -14,14 +15,20 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -45,6 +52,62 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].name", is("John Doe")));
     }
 
+    @Test
+    void getAllUsersWithAnyAccept() throws Exception {
+        when(userService.getAllUsers()).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].name", is("John Doe")));
+    }
+
+    @Test
+    void getUsersPage() throws Exception {
+        when(userService.getUsers(20, 10)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("from", "20")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    void getUsersAfter() throws Exception {
+        when(userService.getUsersAfter(5L, 10)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void streamAllUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(userDto);
+            action.accept(new UserDto(2L, "Jane Doe", "jane.doe@gmail.com"));
+            return null;
+        }).when(userService).forEachUser(any());
+
+        MvcResult result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(userDto) + "\n" +
+                        objectMapper.writeValueAsString(new UserDto(2L, "Jane Doe", "jane.doe@gmail.com")) + "\n"));
+    }
+
     @Test
     void getUserById() throws Exception {
         when(userService.getUserById(anyLong())).thenReturn(userDto);
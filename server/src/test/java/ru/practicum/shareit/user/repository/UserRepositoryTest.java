@@ -4,8 +4,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
@@ -27,4 +35,28 @@ class UserRepositoryTest {
         assertEquals(findUser.getName(), user.getName());
         assertEquals(findUser.getEmail(), user.getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByIdGreaterThanOrderById() {
+        User user1 = userRepository.save(new User(null, "name1", "email1@email.ru"));
+        User user2 = userRepository.save(new User(null, "name2", "email2@email.ru"));
+        User user3 = userRepository.save(new User(null, "name3", "email3@email.ru"));
+
+        assertEquals(List.of(user2, user3), userRepository.findAllByIdGreaterThanOrderById(user1.getId(),
+                PageRequest.of(0, 10)));
+        assertEquals(List.of(user2), userRepository.findAllByIdGreaterThanOrderById(user1.getId(),
+                PageRequest.of(0, 1)));
+        assertEquals(List.of(user3), userRepository.findAllBy(PageRequest.of(2, 1, Sort.by("id"))));
+    }
+
+    @Test
+    void streamAll() {
+        User user1 = userRepository.save(new User(null, "name1", "email1@email.ru"));
+        User user2 = userRepository.save(new User(null, "name2", "email2@email.ru"));
+
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            assertEquals(List.of(UserMapper.toUserDto(user1), UserMapper.toUserDto(user2)),
+                    users.collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.exception.UserAlreadyExistException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Время updateUser со сменой почты при 1 000 и 100 000 пользователей: прежняя проверка перебором findAll()
+ * и проверка уникальным индексом users.email.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=UpdateUserBenchmarkTest
+ **/
+@Slf4j
+@DataJpaTest
+@Import({UserServiceImpl.class, UserExistenceCache.class})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UpdateUserBenchmarkTest {
+    private static final int SMALL = 1_000;
+    private static final int LARGE = 100_000;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 20;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserServiceImpl userService;
+    private long userId;
+    private int run;
+
+    @Test
+    void compareEmailChecks() {
+        userId = userRepository.save(User.builder().name("user").email("bench-user@mail.ru").build()).getId();
+
+        fillUsers(1, SMALL);
+        double smallLegacyMs = measure(this::legacyUpdate);
+        double smallMs = measure(this::update);
+
+        fillUsers(SMALL + 1, LARGE);
+        double largeLegacyMs = measure(this::legacyUpdate);
+        double largeMs = measure(this::update);
+
+        UserDto duplicate = new UserDto();
+        duplicate.setEmail("bench1@mail.ru");
+        assertThrows(UserAlreadyExistException.class, () -> userService.updateUser(duplicate, userId));
+
+        log.info("updateUser: {} пользователей - перебор {} мс, индекс {} мс; {} пользователей - перебор {} мс, индекс {} мс",
+                SMALL, format(smallLegacyMs), format(smallMs), LARGE, format(largeLegacyMs), format(largeMs));
+        assertTrue(largeMs < smallMs * 5 + 5, "Время updateUser не должно расти с числом пользователей");
+    }
+
+    private void fillUsers(int from, int to) {
+        entityManager.createNativeQuery("INSERT INTO users (id, name, email) " +
+                        "SELECT nextval('users_seq'), CONCAT('user', x), CONCAT('bench', x, '@mail.ru') " +
+                        "FROM SYSTEM_RANGE(CAST(?1 AS INT), CAST(?2 AS INT))")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .executeUpdate();
+    }
+
+    private void update() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail("bench-user" + run++ + "@mail.ru");
+        userService.updateUser(userDto, userId);
+    }
+
+    /**
+     * Прежняя реализация: все пользователи загружаются в контекст, чтобы сравнить почту
+     **/
+    private void legacyUpdate() {
+        String email = "bench-user" + run++ + "@mail.ru";
+        User existingUser = userRepository.findById(userId).orElseThrow();
+        for (User user : userRepository.findAll()) {
+            if (user.getEmail().equals(email) && user.getId() != userId) {
+                throw new UserAlreadyExistException(email);
+            }
+        }
+        existingUser.setEmail(email);
+        userRepository.saveAndFlush(existingUser);
+    }
+
+    private double measure(Runnable update) {
+        for (int i = 0; i < WARMUP; i++) {
+            update.run();
+            entityManager.clear();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            update.run();
+            entityManager.clear();
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+    }
+
+    private String format(double ms) {
+        return String.format("%.2f", ms);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceCacheTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserExistenceCache(userRepository, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void existingUserIsLoadedOnce() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(cache.exists(1L));
+        assertTrue(cache.exists(1L));
+
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void missingUserIsLoadedOnce() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertFalse(cache.exists(99L));
+        assertFalse(cache.exists(99L));
+
+        verify(userRepository, times(1)).existsById(99L);
+    }
+
+    @Test
+    void missingUserExpires() {
+        cache = new UserExistenceCache(userRepository, 2, Duration.ZERO);
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertFalse(cache.exists(99L));
+        assertFalse(cache.exists(99L));
+
+        verify(userRepository, times(2)).existsById(99L);
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvicted() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        cache.exists(1L);
+        cache.exists(2L);
+        cache.exists(1L);
+        cache.exists(3L);
+        cache.exists(1L);
+        cache.exists(2L);
+
+        verify(userRepository, times(1)).existsById(1L);
+        verify(userRepository, times(2)).existsById(2L);
+    }
+
+    @Test
+    void savedUserIsNoLongerMissing() {
+        when(userRepository.existsById(5L)).thenReturn(false);
+        assertFalse(cache.exists(5L));
+
+        cache.onUserSaved(5L);
+
+        assertTrue(cache.exists(5L));
+        verify(userRepository, times(1)).existsById(5L);
+    }
+
+    @Test
+    void deletedUserIsMissing() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        assertTrue(cache.exists(1L));
+
+        cache.onUserDeleted(1L);
+
+        assertFalse(cache.exists(1L));
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void answerReadDuringDeletionIsNotCached() {
+        when(userRepository.existsById(1L)).thenAnswer(invocation -> {
+            cache.onUserDeleted(1L);
+            return true;
+        });
+
+        assertTrue(cache.exists(1L));
+
+        assertFalse(cache.exists(1L));
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void clear() {
+        cache.onUserSaved(1L);
+
+        cache.clear();
+
+        verify(userRepository, never()).existsById(1L);
+        cache.exists(1L);
+        verify(userRepository, times(1)).existsById(1L);
+    }
+}
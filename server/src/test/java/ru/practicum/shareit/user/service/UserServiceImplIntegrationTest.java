@@ -5,8 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.exception.UserAlreadyExistException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -51,4 +53,28 @@ class UserServiceImplIntegrationTest {
         assertNotEquals(newName, nonUpdatedUser.getName());
         assertNotEquals(newEmail, nonUpdatedUser.getEmail());
     }
+
+    @Test
+    void updateUserWithExistingEmail() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail(user2.getEmail());
+
+        assertThrows(UserAlreadyExistException.class, () -> userService.updateUser(userDto, user1.getId()));
+    }
+
+    @Test
+    void updateUserWithTooLongEmailIsNotReportedAsDuplicate() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail("a".repeat(513) + "@mail.ru");
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.updateUser(userDto, user1.getId()));
+    }
+
+    @Test
+    void updateUserWithOwnEmail() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail(user1.getEmail());
+
+        assertEquals(user1.getEmail(), userService.updateUser(userDto, user1.getId()).getEmail());
+    }
 }
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.user.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.change.model.ChangeType;
+import ru.practicum.shareit.change.service.ChangeFeed;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserAlreadyExistException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -12,10 +18,13 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -36,10 +45,14 @@ class UserServiceImplTest {
     private UserService userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private ChangeFeed changeFeed;
 
     @BeforeEach
     public void setUp() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, userExistenceCache, changeFeed);
     }
 
     @Test
@@ -96,6 +109,34 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void getUsers() {
+        when(userRepository.findAllBy(PageRequest.of(2, 10, Sort.by("id")))).thenReturn(List.of(user1, user2));
+
+        List<UserDto> users = userService.getUsers(25, 10);
+
+        assertEquals(List.of(UserMapper.toUserDto(user1), UserMapper.toUserDto(user2)), users);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void getUsersAfter() {
+        when(userRepository.findAllByIdGreaterThanOrderById(1L, PageRequest.of(0, 10))).thenReturn(List.of(user2));
+
+        assertEquals(List.of(UserMapper.toUserDto(user2)), userService.getUsersAfter(1L, 10));
+    }
+
+    @Test
+    void forEachUser() {
+        when(userRepository.streamAll())
+                .thenReturn(Stream.of(UserMapper.toUserDto(user1), UserMapper.toUserDto(user2)));
+        List<UserDto> users = new ArrayList<>();
+
+        userService.forEachUser(users::add);
+
+        assertEquals(List.of(UserMapper.toUserDto(user1), UserMapper.toUserDto(user2)), users);
+    }
+
     @Test
     void saveUser() {
         UserDto userDto = UserMapper.toUserDto(user1);
@@ -108,6 +149,8 @@ class UserServiceImplTest {
         assertEquals(user1.getEmail(), savedUserDto.getEmail());
 
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userExistenceCache, times(1)).onUserSaved(user1.getId());
+        verify(changeFeed, times(1)).publish(ChangeType.USER, user1.getId());
     }
 
     @Test
@@ -117,7 +160,6 @@ class UserServiceImplTest {
         userDto.setEmail("updatedEmail@mail.ru");
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
-        when(userRepository.findAll()).thenReturn(Collections.singletonList(user1));
 
         UserDto updatedUserDto = userService.updateUser(userDto, user1.getId());
 
@@ -125,7 +167,10 @@ class UserServiceImplTest {
         assertEquals(userDto.getEmail(), updatedUserDto.getEmail());
 
         verify(userRepository, times(1)).findById(anyLong());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(userRepository, never()).findAll();
+        verify(changeFeed, times(1)).publish(ChangeType.USER, user1.getId());
+        verify(changeFeed, times(1)).publish(ChangeType.ITEM, null);
     }
 
     @Test
@@ -169,7 +214,10 @@ class UserServiceImplTest {
         userDto.setEmail(user2.getEmail());
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new ConstraintViolationException("Unique index or primary key violation",
+                                new SQLException(), "PUBLIC.UQ_USERS_EMAIL_INDEX_4")));
 
         Exception exception = assertThrows(
                 UserAlreadyExistException.class, () -> userService.updateUser(userDto, user1.getId()));
@@ -180,6 +228,21 @@ class UserServiceImplTest {
         assertTrue(actualMessage.contains(expectedMessage));
 
         verify(userRepository, times(1)).findById(anyLong());
+        verify(changeFeed, never()).publish(ChangeType.USER, user1.getId());
+    }
+
+    @Test
+    void updateUserRethrowsOtherIntegrityViolation() {
+        UserDto userDto = UserMapper.toUserDto(user1);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Check constraint violation", new SQLException(), "users_name_check"));
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(
+                DataIntegrityViolationException.class, () -> userService.updateUser(userDto, user1.getId())));
+        verify(changeFeed, never()).publish(ChangeType.USER, user1.getId());
     }
 
     @Test
@@ -189,5 +252,7 @@ class UserServiceImplTest {
         userService.deleteUser(user1.getId());
 
         verify(userRepository, times(1)).deleteById(anyLong());
+        verify(userExistenceCache, times(1)).onUserDeleted(user1.getId());
+        verify(changeFeed, times(1)).publish(ChangeType.USER, user1.getId());
     }
 }
\ No newline at end of file